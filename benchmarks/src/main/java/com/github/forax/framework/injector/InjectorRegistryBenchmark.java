@@ -0,0 +1,83 @@
+package com.github.forax.framework.injector;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the lookup of a prototype, a class with a dependency injected by its constructor
+ * and a dependency injected by a setter, compared to calling the constructor and the setter directly,
+ * and the lookup of a lazy singleton once initialized.
+ * The prototype is created by the factory generated by the module injector-processor
+ * or, if the generated factories are disabled by a system property, by the instantiation plan.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class InjectorRegistryBenchmark {
+  public record Repository(String url) { }
+
+  public static class Clock { }
+
+  public static class Scheduler { }
+
+  public static class Service {
+    private final Repository repository;
+    private Clock clock;
+
+    @Inject
+    public Service(Repository repository) {
+      this.repository = repository;
+    }
+
+    @Inject
+    public void setClock(Clock clock) {
+      this.clock = clock;
+    }
+  }
+
+  private final Repository repository = new Repository("jdbc:h2:mem:");
+  private final Clock clock = new Clock();
+  private final InjectorRegistry registry = new InjectorRegistry();
+  {
+    registry.registerInstance(Repository.class, repository);
+    registry.registerInstance(Clock.class, clock);
+    registry.registerProviderClass(Service.class);
+    registry.registerSingletonClass(Scheduler.class);
+    registry.lookupInstance(Scheduler.class);
+  }
+
+  @Benchmark
+  public Service direct() {
+    var service = new Service(repository);
+    service.setClock(clock);
+    return service;
+  }
+
+  @Benchmark
+  public Service lookupPrototype() {
+    return registry.lookupInstance(Service.class);
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = { "--enable-preview", "-Dcom.github.forax.framework.injector.generated=false" })
+  public Service lookupPrototypePlan() {
+    return registry.lookupInstance(Service.class);
+  }
+
+  @Benchmark
+  public Scheduler lookupSingleton() {
+    return registry.lookupInstance(Scheduler.class);
+  }
+}
@@ -0,0 +1,90 @@
+package com.github.forax.framework.injector;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the first registration and lookup of a small graph of singletons in a fresh JVM,
+ * using the factories generated by the module injector-processor or using the reflection
+ * (the generated factories being disabled by a system property).
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class InjectorStartupBenchmark {
+  public record Config(String url) { }
+
+  public static class DataSource {
+    @Inject
+    public DataSource(Config config) { }
+  }
+
+  public static class Repository {
+    @Inject
+    public Repository(DataSource dataSource) { }
+  }
+
+  public static class Cache {
+    @Inject
+    public Cache(Config config) { }
+  }
+
+  public static class Clock {
+    @Inject
+    public Clock() { }
+  }
+
+  public static class Service {
+    @Inject
+    public Service(Repository repository, Cache cache) { }
+
+    @Inject
+    public void setClock(Clock clock) { }
+  }
+
+  public static class Controller {
+    @Inject
+    public Controller(Service service) { }
+
+    @Inject
+    public void setClock(Clock clock) { }
+  }
+
+  public static class Application {
+    @Inject
+    public Application(Controller controller) { }
+  }
+
+  private static Application start() {
+    var registry = new InjectorRegistry();
+    registry.registerInstance(Config.class, new Config("jdbc:h2:mem:"));
+    registry.registerSingletonClass(DataSource.class);
+    registry.registerSingletonClass(Repository.class);
+    registry.registerSingletonClass(Cache.class);
+    registry.registerSingletonClass(Clock.class);
+    registry.registerSingletonClass(Service.class);
+    registry.registerSingletonClass(Controller.class);
+    registry.registerSingletonClass(Application.class);
+    return registry.lookupInstance(Application.class);
+  }
+
+  @Benchmark
+  @Fork(value = 20, jvmArgsAppend = "--enable-preview")
+  public Application generated() {
+    return start();
+  }
+
+  @Benchmark
+  @Fork(value = 20, jvmArgsAppend = { "--enable-preview", "-Dcom.github.forax.framework.injector.generated=false" })
+  public Application reflection() {
+    return start();
+  }
+}
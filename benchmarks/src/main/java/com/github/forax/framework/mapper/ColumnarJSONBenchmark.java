@@ -0,0 +1,68 @@
+package com.github.forax.framework.mapper;
+
+import com.github.forax.framework.mapper.Corpus.User;
+import com.github.forax.framework.mapper.JSONReader.TypeReference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the row encoding of a list of users, {@code [{"id": 1, ...}, ...]},
+ * with the columnar encoding, {@code {"id": [1, ...], ...}}, when encoding and decoding.
+ * The size of both texts is printed once per fork.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class ColumnarJSONBenchmark {
+  @Param({ "100", "100000" })
+  private int count;
+
+  private final JSONWriter writer = new JSONWriter();
+  private final JSONReader reader = Corpus.reader();
+  private List<User> users;
+  private String rows;
+  private String columns;
+
+  @Setup
+  public void setup() {
+    users = Corpus.users(count);
+    rows = writer.toJSON(users);
+    columns = writer.toColumnarJSON(users, User.class);
+    System.out.println("\nrows: " + rows.length() + " chars, columns: " + columns.length() + " chars");
+  }
+
+  @Benchmark
+  public String writeRows() {
+    return writer.toJSON(users);
+  }
+
+  @Benchmark
+  public String writeColumns() {
+    return writer.toColumnarJSON(users, User.class);
+  }
+
+  @Benchmark
+  public List<User> readRows() {
+    return reader.parseJSON(rows, new TypeReference<List<User>>() {});
+  }
+
+  @Benchmark
+  public List<User> readColumns() {
+    return reader.parseColumnarJSON(columns, User.class);
+  }
+}
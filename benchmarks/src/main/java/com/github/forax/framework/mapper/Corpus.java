@@ -0,0 +1,201 @@
+package com.github.forax.framework.mapper;
+
+import java.lang.reflect.ParameterizedType;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Synthetic JSON documents shaped like the usual JSON benchmark files,
+ * twitter.json (objects with nested objects and strings), citm_catalog.json
+ * (many small objects and integer arrays) and canada.json (large arrays of doubles).
+ *
+ * The documents are generated with a fixed seed so the runs are comparable,
+ * on a single line because {@link ToyJSONParser} only skips spaces and tabs,
+ * and without escaped strings, negative numbers nor exponents to stay comparable
+ * with the runs made before the parser recognized them.
+ */
+final class Corpus {
+  private Corpus() {
+    throw new AssertionError();
+  }
+
+  private static final long SEED = 0x5EED;
+
+  public record User(int id,
+                     String name,
+                     @JSONProperty("screen_name") String screenName,
+                     @JSONProperty("followers_count") int followersCount,
+                     boolean verified) { }
+
+  public record Status(int id,
+                       String text,
+                       String lang,
+                       @JSONProperty("retweet_count") int retweetCount,
+                       boolean favorited,
+                       User user) { }
+
+  public record Timeline(List<Status> statuses) { }
+
+  public static final class UserBean {
+    private int id;
+    private String name;
+    private String screenName;
+    private int followersCount;
+    private boolean verified;
+
+    public int getId() {
+      return id;
+    }
+    public void setId(int id) {
+      this.id = id;
+    }
+    public String getName() {
+      return name;
+    }
+    public void setName(String name) {
+      this.name = name;
+    }
+    @JSONProperty("screen_name")
+    public String getScreenName() {
+      return screenName;
+    }
+    public void setScreenName(String screenName) {
+      this.screenName = screenName;
+    }
+    @JSONProperty("followers_count")
+    public int getFollowersCount() {
+      return followersCount;
+    }
+    public void setFollowersCount(int followersCount) {
+      this.followersCount = followersCount;
+    }
+    public boolean isVerified() {
+      return verified;
+    }
+    public void setVerified(boolean verified) {
+      this.verified = verified;
+    }
+  }
+
+  private static final String[] WORDS = {
+      "json", "java", "framework", "parser", "record", "bean", "reflection", "benchmark",
+      "value", "class", "method", "handle", "lambda", "stream", "virtual", "thread"
+  };
+
+  private static String sentence(Random random, int length) {
+    return IntStream.range(0, length)
+        .mapToObj(__ -> WORDS[random.nextInt(WORDS.length)])
+        .collect(Collectors.joining(" "));
+  }
+
+  static List<User> users(int count) {
+    var random = new Random(SEED);
+    return IntStream.range(0, count)
+        .mapToObj(i -> new User(100_000 + i, sentence(random, 2), "user" + i, random.nextInt(1_000_000), random.nextBoolean()))
+        .toList();
+  }
+
+  static List<UserBean> userBeans(int count) {
+    return users(count).stream()
+        .map(user -> {
+          var bean = new UserBean();
+          bean.setId(user.id());
+          bean.setName(user.name());
+          bean.setScreenName(user.screenName());
+          bean.setFollowersCount(user.followersCount());
+          bean.setVerified(user.verified());
+          return bean;
+        })
+        .toList();
+  }
+
+  static List<Status> statuses(int count) {
+    var random = new Random(SEED + 1);
+    var users = users(count);
+    return IntStream.range(0, count)
+        .mapToObj(i -> new Status(2_000_000 + i, sentence(random, 12), random.nextBoolean() ? "en" : "fr",
+            random.nextInt(10_000), random.nextBoolean(), users.get(i)))
+        .toList();
+  }
+
+  /**
+   * Returns a twitter-like document, {@code {"statuses": [...]}}.
+   */
+  static String twitterJSON(int count) {
+    var writer = new JSONWriter();
+    return statuses(count).stream()
+        .map(writer::toJSON)
+        .collect(Collectors.joining(", ", "{\"statuses\": [", "]}"));
+  }
+
+  /**
+   * Returns a citm_catalog-like document, a lot of small objects with arrays of integers.
+   */
+  static String citmJSON(int count) {
+    var random = new Random(SEED + 2);
+    var builder = new StringBuilder("{\"events\": [");
+    for (var i = 0; i < count; i++) {
+      builder.append(i == 0 ? "" : ", ")
+          .append("{\"id\": ").append(138_586_341 + i)
+          .append(", \"name\": \"").append(sentence(random, 3))
+          .append("\", \"logo\": null, \"subTopicIds\": [")
+          .append(IntStream.range(0, 1 + random.nextInt(4)).mapToObj(__ -> "" + (337_184_000 + random.nextInt(1_000))).collect(Collectors.joining(", ")))
+          .append("], \"topicIds\": [").append(324_846_099 + random.nextInt(100)).append("]}");
+    }
+    builder.append("], \"performances\": [");
+    for (var i = 0; i < count; i++) {
+      builder.append(i == 0 ? "" : ", ")
+          .append("{\"eventId\": ").append(138_586_341 + i)
+          .append(", \"id\": ").append(339_887_544 + i)
+          .append(", \"prices\": [");
+      var prices = 1 + random.nextInt(5);
+      for (var j = 0; j < prices; j++) {
+        builder.append(j == 0 ? "" : ", ")
+            .append("{\"amount\": ").append(9_000 + random.nextInt(200_000))
+            .append(", \"audienceSubCategoryId\": ").append(337_100_890)
+            .append(", \"seatCategoryId\": ").append(338_937_295 + j).append('}');
+      }
+      builder.append("], \"start\": ").append(1_372_955_400 + i).append(", \"venueCode\": \"PLEYEL_PLEYEL\"}");
+    }
+    return builder.append("]}").toString();
+  }
+
+  /**
+   * Returns a canada-like document, polygons described by arrays of coordinates.
+   */
+  static String canadaJSON(int polygons, int points) {
+    var random = new Random(SEED + 3);
+    var builder = new StringBuilder("{\"type\": \"Polygon\", \"coordinates\": [");
+    for (var i = 0; i < polygons; i++) {
+      builder.append(i == 0 ? "[" : ", [");
+      for (var j = 0; j < points; j++) {
+        // positive values in [40, 140[, printed without exponent
+        builder.append(j == 0 ? "[" : ", [")
+            .append(40.0 + random.nextDouble(100.0)).append(", ")
+            .append(40.0 + random.nextDouble(100.0)).append(']');
+      }
+      builder.append(']');
+    }
+    return builder.append("]}").toString();
+  }
+
+  public record Canada(String type, List<List<List<Double>>> coordinates) { }
+
+  /**
+   * Returns a reader that decodes records and lists in the addition of beans.
+   */
+  static JSONReader reader() {
+    var reader = new JSONReader();
+    reader.addTypeMatcher(type -> Optional.of(Utils.erase(type))
+        .filter(Class::isRecord)
+        .map(JSONReader.ObjectBuilder::record));
+    reader.addTypeMatcher(type -> Optional.of(type)
+        .flatMap(t -> t instanceof ParameterizedType parameterizedType ? Optional.of(parameterizedType) : Optional.empty())
+        .filter(t -> t.getRawType() == List.class)
+        .map(t -> JSONReader.ObjectBuilder.list(t.getActualTypeArguments()[0])));
+    return reader;
+  }
+}
@@ -0,0 +1,80 @@
+package com.github.forax.framework.mapper;
+
+import com.github.forax.framework.mapper.Corpus.Canada;
+import com.github.forax.framework.mapper.Corpus.Timeline;
+import com.github.forax.framework.mapper.Corpus.User;
+import com.github.forax.framework.mapper.Corpus.UserBean;
+import com.github.forax.framework.mapper.JSONReader.TypeReference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the decoding of the corpus to beans, records, lists and nested records.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class JSONReaderBenchmark {
+  private final JSONReader reader = Corpus.reader();
+  private final JSONReader cachingReader = Corpus.reader();
+  {
+    cachingReader.setStringCache(new StringCache());
+  }
+  private final String user = new JSONWriter().toJSON(Corpus.users(1).getFirst());
+  private final String users = Corpus.users(100).stream()
+      .map(new JSONWriter()::toJSON)
+      .toList()
+      .toString();
+  private final String twitter = Corpus.twitterJSON(100);
+  private final String canada = Corpus.canadaJSON(10, 200);
+
+  @Benchmark
+  public UserBean bean() {
+    return reader.parseJSON(user, UserBean.class);
+  }
+
+  private final UserBean userBean = new UserBean();
+
+  @Benchmark
+  public UserBean beanInto() {
+    return reader.parseJSONInto(user, userBean);
+  }
+
+  @Benchmark
+  public User record() {
+    return reader.parseJSON(user, User.class);
+  }
+
+  @Benchmark
+  public List<User> list() {
+    return reader.parseJSON(users, new TypeReference<List<User>>() {});
+  }
+
+  @Benchmark
+  public Timeline nested() {
+    return reader.parseJSON(twitter, Timeline.class);
+  }
+
+  @Benchmark
+  public Timeline nestedWithStringCache() {
+    return cachingReader.parseJSON(twitter, Timeline.class);
+  }
+
+  @Benchmark
+  public Canada numbers() {
+    return reader.parseJSON(canada, Canada.class);
+  }
+}
@@ -0,0 +1,75 @@
+package com.github.forax.framework.mapper;
+
+import com.github.forax.framework.mapper.Corpus.Status;
+import com.github.forax.framework.mapper.Corpus.User;
+import com.github.forax.framework.mapper.Corpus.UserBean;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the encoding of 100 users or statuses, element by element
+ * for the row encodings, at once for the columnar encoding.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class JSONWriterBenchmark {
+  private final JSONWriter writer = new JSONWriter();
+  private final List<UserBean> userBeans = Corpus.userBeans(100);
+  private final List<User> users = Corpus.users(100);
+  private final List<Status> statuses = Corpus.statuses(100);
+
+  @Benchmark
+  public void bean(Blackhole blackhole) {
+    for (var userBean : userBeans) {
+      blackhole.consume(writer.toJSON(userBean));
+    }
+  }
+
+  @Benchmark
+  public void record(Blackhole blackhole) {
+    for (var user : users) {
+      blackhole.consume(writer.toJSON(user));
+    }
+  }
+
+  @Benchmark
+  public void nested(Blackhole blackhole) {
+    for (var status : statuses) {
+      blackhole.consume(writer.toJSON(status));
+    }
+  }
+
+  @Benchmark
+  public void pretty(Blackhole blackhole) {
+    for (var status : statuses) {
+      blackhole.consume(writer.toPrettyJSON(status));
+    }
+  }
+
+  @Benchmark
+  public void binary(Blackhole blackhole) {
+    for (var status : statuses) {
+      blackhole.consume(writer.toBinary(status));
+    }
+  }
+
+  @Benchmark
+  public String columnar() {
+    return writer.toColumnarJSON(users, User.class);
+  }
+}
@@ -0,0 +1,86 @@
+package com.github.forax.framework.mapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the raw parsing, the visitor does nothing but consuming the events.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class ToyJSONParserBenchmark {
+  @Param({"twitter", "citm", "canada"})
+  public String corpus;
+
+  private String text;
+
+  @Setup
+  public void setup() {
+    text = switch (corpus) {
+      case "twitter" -> Corpus.twitterJSON(100);
+      case "citm" -> Corpus.citmJSON(200);
+      case "canada" -> Corpus.canadaJSON(10, 200);
+      default -> throw new AssertionError(corpus);
+    };
+  }
+
+  private static ToyJSONParser.JSONVisitor visitor(Blackhole blackhole) {
+    return new ToyJSONParser.JSONVisitor() {
+      @Override
+      public void value(String key, Object value) {
+        blackhole.consume(value);
+      }
+
+      @Override
+      public void startObject(String key) {
+        blackhole.consume(key);
+      }
+
+      @Override
+      public void endObject(String key) {
+        blackhole.consume(key);
+      }
+
+      @Override
+      public void startArray(String key) {
+        blackhole.consume(key);
+      }
+
+      @Override
+      public void endArray(String key) {
+        blackhole.consume(key);
+      }
+    };
+  }
+
+  @Benchmark
+  public void parse(Blackhole blackhole) {
+    ToyJSONParser.parse(text, visitor(blackhole));
+  }
+
+  @Benchmark
+  public void validate() {
+    ToyJSONParser.validate(text);
+  }
+
+  @Benchmark
+  public JSONReader.ScanResult scan() {
+    return ToyJSONParser.scan(text);
+  }
+}
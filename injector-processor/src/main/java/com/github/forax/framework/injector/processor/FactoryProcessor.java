@@ -0,0 +1,209 @@
+package com.github.forax.framework.injector.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.beans.Introspector;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Generates at compile time the {@code Factory} of the classes having a constructor or a setter
+ * annotated with {@code @Inject}.
+ *
+ * The classes that can not be created without reflection (generic classes, non-public classes, etc.)
+ * are reported as a note and left to the reflection.
+ */
+@SupportedAnnotationTypes(FactoryProcessor.INJECT)
+public final class FactoryProcessor extends AbstractProcessor {
+  static final String INJECT = "com.github.forax.framework.injector.Inject";
+
+  private final Set<String> generated = new LinkedHashSet<>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    var types = new LinkedHashSet<TypeElement>();
+    for (var annotation : annotations) {
+      for (var element : roundEnv.getElementsAnnotatedWith(annotation)) {
+        if (element.getKind() == ElementKind.CONSTRUCTOR || element.getKind() == ElementKind.METHOD) {
+          types.add((TypeElement) element.getEnclosingElement());
+        }
+      }
+    }
+    for (var type : types) {
+      var binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+      if (generated.add(binaryName)) {
+        checkSupported(type).ifPresentOrElse(
+            reason -> processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "no factory generated, " + reason, type),
+            () -> generate(type, binaryName));
+      }
+    }
+    return false;  // @Inject is also used at runtime
+  }
+
+  /**
+   * An injectable setter.
+   * @param name the name of the setter.
+   * @param type the type of the property.
+   * @param throwing true if the setter declares exceptions.
+   */
+  private record Setter(String name, TypeMirror type, boolean throwing) { }
+
+  private static boolean isInjectable(Element element) {
+    return element.getAnnotationMirrors().stream()
+        .anyMatch(mirror -> ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(INJECT));
+  }
+
+  // same rules as InjectorRegistry, only the public constructors are considered
+  private static List<ExecutableElement> injectableConstructors(TypeElement type) {
+    return ElementFilter.constructorsIn(type.getEnclosedElements()).stream()
+        .filter(constructor -> constructor.getModifiers().contains(Modifier.PUBLIC))
+        .filter(FactoryProcessor::isInjectable)
+        .toList();
+  }
+
+  private Optional<ExecutableElement> defaultConstructor(TypeElement type) {
+    return ElementFilter.constructorsIn(type.getEnclosedElements()).stream()
+        .filter(constructor -> constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC))
+        .findFirst();
+  }
+
+  private Optional<String> checkSupported(TypeElement type) {
+    if (type.getKind() != ElementKind.CLASS && type.getKind() != ElementKind.RECORD) {
+      return Optional.of("the type is not a class");
+    }
+    if (!type.getTypeParameters().isEmpty()) {
+      return Optional.of("the class is generic");
+    }
+    if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+      return Optional.of("the class is abstract");
+    }
+    for (Element element = type; element instanceof TypeElement typeElement; element = element.getEnclosingElement()) {
+      if (!typeElement.getModifiers().contains(Modifier.PUBLIC)) {
+        return Optional.of("the class " + typeElement.getQualifiedName() + " is not public");
+      }
+      if (typeElement.getNestingKind() == NestingKind.MEMBER && !typeElement.getModifiers().contains(Modifier.STATIC)
+          && typeElement.getKind() == ElementKind.CLASS) {
+        return Optional.of("the class " + typeElement.getQualifiedName() + " is an inner class");
+      }
+      if (typeElement.getNestingKind() == NestingKind.LOCAL || typeElement.getNestingKind() == NestingKind.ANONYMOUS) {
+        return Optional.of("the class is a local class");
+      }
+    }
+    var constructors = injectableConstructors(type);
+    if (constructors.size() > 1) {
+      return Optional.of("too many injectable constructors");
+    }
+    if (constructors.isEmpty() && defaultConstructor(type).isEmpty()) {
+      return Optional.of("no public default constructor");
+    }
+    return Optional.empty();
+  }
+
+  // same rules and same order as java.beans.Introspector
+  private List<Setter> injectableSetters(TypeElement type) {
+    var setters = new TreeMap<String, ExecutableElement>();
+    for (var method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+      if (!method.getModifiers().contains(Modifier.PUBLIC) || method.getModifiers().contains(Modifier.STATIC)) {
+        continue;
+      }
+      var name = method.getSimpleName().toString();
+      if (method.getParameters().size() == 1 && name.startsWith("set") && name.length() > 3
+          && method.getReturnType().getKind() == TypeKind.VOID) {
+        setters.putIfAbsent(Introspector.decapitalize(name.substring(3)), method);
+      }
+    }
+    return setters.values().stream()
+        .filter(FactoryProcessor::isInjectable)
+        .map(setter -> new Setter(setter.getSimpleName().toString(), setter.getParameters().getFirst().asType(),
+            !setter.getThrownTypes().isEmpty()))
+        .toList();
+  }
+
+  // the lookups are done using the erased types, like with the reflection
+  private String classLiteral(TypeMirror type) {
+    return processingEnv.getTypeUtils().erasure(type) + ".class";
+  }
+
+  private static String lookup(String classLiteral) {
+    return "registry.lookupInstance(" + classLiteral + ")";
+  }
+
+  private void generate(TypeElement type, String binaryName) {
+    var packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+    var factorySimpleName = binaryName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1) + "_Factory";
+    var source = generateFactory(type, packageName, factorySimpleName);
+    var factoryName = packageName.isEmpty() ? factorySimpleName : packageName + "." + factorySimpleName;
+    try (var writer = processingEnv.getFiler().createSourceFile(factoryName, type).openWriter()) {
+      writer.write(source);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private String generateFactory(TypeElement type, String packageName, String factorySimpleName) {
+    var className = type.getQualifiedName().toString();
+    var parameters = injectableConstructors(type).stream()
+        .flatMap(constructor -> constructor.getParameters().stream())
+        .map(parameter -> classLiteral(parameter.asType()))
+        .toList();
+    var setters = injectableSetters(type);
+    var constructor = injectableConstructors(type).stream().findFirst().or(() -> defaultConstructor(type)).orElseThrow();
+    var throwing = !constructor.getThrownTypes().isEmpty() || setters.stream().anyMatch(Setter::throwing);
+    var indent = throwing ? "      " : "    ";
+    var dependencies = new LinkedHashSet<>(parameters);
+    setters.forEach(setter -> dependencies.add(classLiteral(setter.type)));
+
+    // the names are fully qualified to avoid a clash with the classes of the package
+    var builder = new StringBuilder(packageName.isEmpty() ? "" : "package " + packageName + ";\n\n");
+    builder.append("@javax.annotation.processing.Generated(\"").append(FactoryProcessor.class.getName()).append("\")\n");
+    builder.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+    builder.append("public final class ").append(factorySimpleName)
+        .append(" implements com.github.forax.framework.injector.Factory<").append(className).append("> {\n");
+    builder.append("  private static final java.util.List<Class<?>> DEPENDENCIES = java.util.List.of(")
+        .append(String.join(", ", dependencies)).append(");\n\n");
+    builder.append("  @Override\n  public java.util.List<Class<?>> dependencies() {\n    return DEPENDENCIES;\n  }\n\n");
+    builder.append("  @Override\n  public ").append(className)
+        .append(" create(com.github.forax.framework.injector.InjectorRegistry registry) {\n");
+    if (throwing) {
+      builder.append("    try {\n");
+    }
+    builder.append(indent).append("var instance = new ").append(className)
+        .append(parameters.stream().map(FactoryProcessor::lookup).collect(joining(", ", "(", ");\n")));
+    for (var setter : setters) {
+      builder.append(indent).append("instance.").append(setter.name).append("(").append(lookup(classLiteral(setter.type))).append(");\n");
+    }
+    builder.append(indent).append("return instance;\n");
+    if (!throwing) {
+      builder.append("  }\n}\n");
+      return builder.toString();
+    }
+    // the checked exceptions are not wrapped, like with the reflection
+    builder.append("    } catch (Throwable e) {\n      throw ").append(factorySimpleName).append(".<RuntimeException>rethrow(e);\n    }\n  }\n\n");
+    builder.append("  private static <T extends Throwable> T rethrow(Throwable e) throws T {\n    throw (T) e;\n  }\n}\n");
+    return builder.toString();
+  }
+}
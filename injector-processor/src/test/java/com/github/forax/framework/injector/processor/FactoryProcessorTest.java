@@ -0,0 +1,236 @@
+package com.github.forax.framework.injector.processor;
+
+import com.github.forax.framework.injector.Factory;
+import com.github.forax.framework.injector.InjectorRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FactoryProcessorTest {
+  private static ClassLoader compile(Path directory, Map<String, String> sources) throws IOException {
+    var sourceDirectory = Files.createDirectories(directory.resolve("src"));
+    var classDirectory = Files.createDirectories(directory.resolve("classes"));
+    var sourceFiles = new ArrayList<String>();
+    for (var entry : sources.entrySet()) {
+      var file = sourceDirectory.resolve(entry.getKey().replace('.', '/') + ".java");
+      Files.createDirectories(file.getParent());
+      Files.writeString(file, entry.getValue());
+      sourceFiles.add(file.toString());
+    }
+    var compiler = ToolProvider.getSystemJavaCompiler();
+    var arguments = new ArrayList<>(List.of(
+        "--release", "" + Runtime.version().feature(), "--enable-preview",
+        "-classpath", System.getProperty("java.class.path"),
+        "-processor", FactoryProcessor.class.getName(),
+        "-s", sourceDirectory.toString(),
+        "-d", classDirectory.toString()));
+    arguments.addAll(sourceFiles);
+    assertEquals(0, compiler.run(null, null, null, arguments.toArray(String[]::new)));
+    return new URLClassLoader(new URL[] { classDirectory.toUri().toURL() }, FactoryProcessorTest.class.getClassLoader());
+  }
+
+  @Test
+  public void factory(@TempDir Path directory) throws Exception {
+    var loader = compile(directory, Map.of("sample.Engine", """
+        package sample;
+
+        public record Engine(int power) { }
+        """, "sample.Car", """
+        package sample;
+
+        import com.github.forax.framework.injector.Inject;
+        import java.util.List;
+
+        public class Car {
+          public final Engine engine;
+          public String name;
+          public List<String> options;
+
+          @Inject
+          public Car(Engine engine) {
+            this.engine = engine;
+          }
+
+          @Inject
+          public void setName(String name) {
+            this.name = name;
+          }
+
+          @Inject
+          public void setOptions(List<String> options) {
+            this.options = options;
+          }
+
+          public void setIgnored(String ignored) {
+            throw new AssertionError();
+          }
+        }
+        """));
+    var engineClass = loader.loadClass("sample.Engine");
+    var carClass = loader.loadClass("sample.Car");
+    var factory = (Factory<?>) loader.loadClass("sample.Car_Factory").getConstructor().newInstance();
+    var engine = engineClass.getConstructor(int.class).newInstance(110);
+
+    var registry = new InjectorRegistry();
+    registerInstance(registry, engineClass, engine);
+    registry.registerInstance(String.class, "clio");
+    registry.registerInstance(List.class, List.of("gps"));
+    registry.registerProviderClass(carClass);
+    var car = registry.lookupInstance(carClass);
+    assertAll(
+        () -> assertEquals(List.of(engineClass, String.class, List.class), factory.dependencies()),
+        () -> assertEquals(engine, carClass.getField("engine").get(car)),
+        () -> assertEquals("clio", carClass.getField("name").get(car)),
+        () -> assertEquals(List.of("gps"), carClass.getField("options").get(car))
+    );
+  }
+
+  private static <T> void registerInstance(InjectorRegistry registry, Class<T> type, Object instance) {
+    registry.registerInstance(type, type.cast(instance));
+  }
+
+  @Test
+  public void factoryOfNestedClassWithDefaultConstructor(@TempDir Path directory) throws Exception {
+    var loader = compile(directory, Map.of("sample.Outer", """
+        package sample;
+
+        import com.github.forax.framework.injector.Inject;
+
+        public class Outer {
+          public static class Clock {
+            public String zone;
+
+            @Inject
+            public void setZone(String zone) {
+              this.zone = zone;
+            }
+          }
+        }
+        """));
+    var clockClass = loader.loadClass("sample.Outer$Clock");
+    var registry = new InjectorRegistry();
+    registry.registerInstance(String.class, "UTC");
+    registry.registerSingletonClass(clockClass);
+    registry.warmUp();
+    assertAll(
+        () -> assertTrue(Files.exists(directory.resolve("src/sample/Outer$Clock_Factory.java"))),
+        () -> assertEquals("UTC", clockClass.getField("zone").get(registry.lookupInstance(clockClass)))
+    );
+  }
+
+  @Test
+  public void factoryDependenciesAreValidated(@TempDir Path directory) throws Exception {
+    var loader = compile(directory, Map.of("sample.Service", """
+        package sample;
+
+        import com.github.forax.framework.injector.Inject;
+
+        public record Service(String url, Integer port) {
+          @Inject
+          public Service { }
+        }
+        """));
+    var serviceClass = loader.loadClass("sample.Service");
+    var registry = new InjectorRegistry();
+    registry.registerProviderClass(serviceClass);
+    registry.registerInstance(String.class, "localhost");
+    assertThrows(IllegalStateException.class, registry::validate);
+  }
+
+  @Test
+  public void checkedExceptionsAreNotWrapped(@TempDir Path directory) throws Exception {
+    var loader = compile(directory, Map.of("sample.Service", """
+        package sample;
+
+        import com.github.forax.framework.injector.Inject;
+        import java.io.IOException;
+
+        public class Service {
+          @Inject
+          public Service(String url) throws IOException {
+            if (url.isEmpty()) {
+              throw new IOException("no url");
+            }
+          }
+
+          @Inject
+          public void setPort(Integer port) throws Exception {
+            if (port == 0) {
+              throw new Exception("no port");
+            }
+          }
+        }
+        """));
+    var serviceClass = loader.loadClass("sample.Service");
+    var registry = new InjectorRegistry();
+    registry.registerProviderClass(serviceClass);
+    registry.registerInstance(Integer.class, 0);
+    registry.registerInstance(String.class, "");
+    var registry2 = new InjectorRegistry();
+    registry2.registerProviderClass(serviceClass);
+    registry2.registerInstance(Integer.class, 0);
+    registry2.registerInstance(String.class, "localhost");
+    assertAll(
+        () -> assertTrue(Files.exists(directory.resolve("src/sample/Service_Factory.java"))),
+        () -> assertEquals("no url",
+            assertThrows(IOException.class, () -> registry.lookupInstance(serviceClass)).getMessage()),
+        () -> assertEquals("no port",
+            assertThrows(Exception.class, () -> registry2.lookupInstance(serviceClass)).getMessage())
+    );
+  }
+
+  @Test
+  public void unsupportedClassesAreLeftToReflection(@TempDir Path directory) throws Exception {
+    compile(directory, Map.of("sample.Box", """
+        package sample;
+
+        import com.github.forax.framework.injector.Inject;
+
+        public class Box<T> {
+          @Inject
+          public Box() { }
+        }
+        """, "sample.Hidden", """
+        package sample;
+
+        import com.github.forax.framework.injector.Inject;
+
+        class Hidden {
+          @Inject
+          public Hidden() { }
+        }
+        """, "sample.Twice", """
+        package sample;
+
+        import com.github.forax.framework.injector.Inject;
+
+        public class Twice {
+          @Inject
+          public Twice() { }
+
+          @Inject
+          public Twice(String text) { }
+        }
+        """));
+    assertAll(
+        () -> assertFalse(Files.exists(directory.resolve("src/sample/Box_Factory.java"))),
+        () -> assertFalse(Files.exists(directory.resolve("src/sample/Hidden_Factory.java"))),
+        () -> assertFalse(Files.exists(directory.resolve("src/sample/Twice_Factory.java")))
+    );
+  }
+}
@@ -0,0 +1,23 @@
+package com.github.forax.framework.injector;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+
+/**
+ * Only used when a class is instantiated by reflection, so {@code java.beans}
+ * is not loaded when all the factories are generated at compile time.
+ */
+final class BeanInfos {
+  private BeanInfos() {
+    throw new AssertionError();
+  }
+
+  public static BeanInfo beanInfo(Class<?> beanType) {
+    try {
+      return Introspector.getBeanInfo(beanType);
+    } catch (IntrospectionException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
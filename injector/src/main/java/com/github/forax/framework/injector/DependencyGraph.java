@@ -0,0 +1,79 @@
+package com.github.forax.framework.injector;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The graph of the dependencies between the registered types of an {@link InjectorRegistry},
+ * a type registered with a supplier has no known dependency.
+ *
+ * The graph is a snapshot, it does not see the types registered after its creation.
+ */
+final class DependencyGraph {
+  private final Set<Class<?>> types;
+  private final Map<Class<?>, List<Class<?>>> dependencyMap;
+
+  DependencyGraph(Set<Class<?>> types, Map<Class<?>, List<Class<?>>> dependencyMap) {
+    this.types = types;
+    this.dependencyMap = dependencyMap;
+  }
+
+  public List<Class<?>> dependencies(Class<?> type) {
+    return dependencyMap.getOrDefault(type, List.of());
+  }
+
+  /**
+   * Returns the registered types sorted so a type is after its dependencies.
+   * @throws IllegalStateException if a dependency is not registered or if there is a cycle.
+   */
+  public List<Class<?>> topologicalOrder() {
+    var order = new ArrayList<Class<?>>();
+    var visitedMap = new HashMap<Class<?>, Boolean>();  // false means in the current path
+    var path = new ArrayDeque<Class<?>>();
+    // sort the types, so the order and the error message do not depend on the registration order
+    for (var type : types.stream().sorted(Comparator.comparing(Class::getName)).toList()) {
+      visit(type, visitedMap, path, order);
+    }
+    return order;
+  }
+
+  private void visit(Class<?> type, HashMap<Class<?>, Boolean> visitedMap, ArrayDeque<Class<?>> path, List<Class<?>> order) {
+    var visited = visitedMap.get(type);
+    if (visited != null) {
+      if (!visited) {
+        throw new IllegalStateException("dependency cycle " + cycle(type, path));
+      }
+      return;
+    }
+    if (!types.contains(type)) {
+      throw new IllegalStateException("no recipe for " + type.getName() + " required by " + path.getLast().getName());
+    }
+    visitedMap.put(type, false);
+    path.addLast(type);
+    for (var dependency : dependencies(type)) {
+      visit(dependency, visitedMap, path, order);
+    }
+    path.removeLast();
+    visitedMap.put(type, true);
+    order.add(type);
+  }
+
+  private static String cycle(Class<?> type, ArrayDeque<Class<?>> path) {
+    var cycle = new ArrayList<Class<?>>();
+    var iterator = path.descendingIterator();
+    Class<?> element;
+    do {
+      element = iterator.next();
+      cycle.add(element);
+    } while (element != type);
+    return cycle.reversed().stream()
+        .map(Class::getName)
+        .collect(Collectors.joining(" -> ", "", " -> " + type.getName()));
+  }
+}
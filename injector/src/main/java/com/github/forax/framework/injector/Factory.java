@@ -0,0 +1,29 @@
+package com.github.forax.framework.injector;
+
+import java.util.List;
+
+/**
+ * A factory generated at compile time for a provider class,
+ * used by {@link InjectorRegistry} instead of the reflection.
+ *
+ * The factory of a class {@code pkg.Foo} (or {@code pkg.Outer$Foo} for a nested class) is a class
+ * named {@code pkg.Foo_Factory} (or {@code pkg.Outer$Foo_Factory}) with a public default constructor.
+ *
+ * @param <T> the type of the provider class.
+ */
+public interface Factory<T> {
+  /**
+   * Returns the types of the parameters of the injectable constructor followed by
+   * the types of the injectable properties, without duplicates.
+   * @return the types of the dependencies.
+   */
+  List<Class<?>> dependencies();
+
+  /**
+   * Creates an instance by calling the injectable constructor and then the injectable setters,
+   * the dependencies are looked up in the registry.
+   * @param registry the registry used to look up the dependencies.
+   * @return a new instance.
+   */
+  T create(InjectorRegistry registry);
+}
@@ -0,0 +1,43 @@
+package com.github.forax.framework.injector;
+
+final class GeneratedFactories {
+  private GeneratedFactories() {
+    throw new AssertionError();
+  }
+
+  // can be set to false to compare with the reflection or to debug the generated factories
+  private static final boolean ENABLED =
+      Boolean.parseBoolean(System.getProperty("com.github.forax.framework.injector.generated", "true"));
+
+  private static final ClassValue<Factory<?>> FACTORY_CLASS_VALUE = new ClassValue<>() {
+    @Override
+    protected Factory<?> computeValue(Class<?> type) {
+      var classLoader = type.getClassLoader();
+      if (classLoader == null || type.isArray() || type.isInterface()) {
+        return null;
+      }
+      Class<?> factoryClass;
+      try {
+        factoryClass = Class.forName(type.getName() + "_Factory", true, classLoader);
+      } catch (ClassNotFoundException e) {
+        return null;
+      }
+      if (!Factory.class.isAssignableFrom(factoryClass)) {
+        throw new IllegalStateException(factoryClass.getName() + " does not implement " + Factory.class.getName());
+      }
+      return (Factory<?>) Utils.newInstance(Utils.defaultConstructor(factoryClass));
+    }
+  };
+
+  /**
+   * Returns the factory generated at compile time for a provider class or null.
+   * @param type a provider class.
+   * @return the factory generated at compile time for a provider class or null.
+   */
+  static Factory<?> factory(Class<?> type) {
+    if (!ENABLED) {
+      return null;
+    }
+    return FACTORY_CLASS_VALUE.get(type);
+  }
+}
@@ -1,5 +1,410 @@
 package com.github.forax.framework.injector;
 
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * A registry of recipes to create instances.
+ *
+ * A registry is thread-safe, the lookups are lock-free and can be done while
+ * other threads register recipes. A registration is atomic, a lookup sees the recipe
+ * of a type once the registration of that type has returned.
+ */
 public final class InjectorRegistry {
-  // TODO
-}
\ No newline at end of file
+  private final ConcurrentHashMap<Class<?>, Supplier<?>> registry = new ConcurrentHashMap<>();
+  // the dependencies of the types registered with a provider class
+  private final ConcurrentHashMap<Class<?>, List<Class<?>>> dependencyMap = new ConcurrentHashMap<>();
+
+  // the recipes are never replaced nor removed, so once found a recipe can be cached per class,
+  // an unknown type is not cached, so it can be registered later
+  private final ClassValue<Supplier<?>> supplierClassValue = new ClassValue<>() {
+    @Override
+    protected Supplier<?> computeValue(Class<?> type) {
+      var supplier = registry.get(type);
+      if (supplier == null) {
+        throw new IllegalStateException("no recipe for " + type.getName());
+      }
+      return supplier;
+    }
+  };
+
+  public <T> void registerInstance(Class<T> type, T instance) {
+    Objects.requireNonNull(type);
+    Objects.requireNonNull(instance);
+    registerProvider(type, () -> instance);
+  }
+
+  public <T> void registerProvider(Class<T> type, Supplier<? extends T> supplier) {
+    Objects.requireNonNull(type);
+    Objects.requireNonNull(supplier);
+    var result = registry.putIfAbsent(type, supplier);
+    if (result != null) {
+      throw new IllegalStateException("recipe for " + type.getName() + " already registered");
+    }
+  }
+
+  /**
+   * A recipe that calls the supplier once, the first time an instance is requested.
+   *
+   * Once initialized, a lookup is a volatile read. The initialization uses a lock and not
+   * synchronized so a virtual thread waiting for another thread to initialize is not pinned.
+   * If the supplier fails, the exception is propagated and the next lookup tries again.
+   */
+  private static final class Singleton<T> implements Supplier<T> {
+    private final Class<T> type;
+    private Supplier<? extends T> supplier;  // null once initialized, guarded by lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private boolean initializing;  // guarded by lock
+    private volatile T instance;
+
+    private Singleton(Class<T> type, Supplier<? extends T> supplier) {
+      this.type = type;
+      this.supplier = supplier;
+    }
+
+    @Override
+    public T get() {
+      var instance = this.instance;
+      if (instance != null) {
+        return instance;
+      }
+      return initialize();
+    }
+
+    private T initialize() {
+      lock.lock();
+      try {
+        var instance = this.instance;
+        if (instance != null) {
+          return instance;
+        }
+        if (initializing) {
+          throw new IllegalStateException("cycle detected while initializing the singleton " + type.getName());
+        }
+        initializing = true;
+        try {
+          instance = Objects.requireNonNull(supplier.get(), "the supplier of " + type.getName() + " returns null");
+        } finally {
+          initializing = false;
+        }
+        this.instance = instance;
+        supplier = null;  // allow the supplier to be garbage collected
+        return instance;
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Registers a supplier called lazily only once, the first time an instance of the type is requested,
+   * even if several threads request the instance at the same time.
+   */
+  public <T> void registerSingleton(Class<T> type, Supplier<? extends T> supplier) {
+    Objects.requireNonNull(type);
+    Objects.requireNonNull(supplier);
+    registerProvider(type, new Singleton<>(type, supplier));
+  }
+
+  // a request scope is bound using a scoped value, so it is visible by the threads forked
+  // in a StructuredTaskScope and not by the other threads, and it does not cost a thread local per thread;
+  // there is one thread local per registry and not per type, to limit the memory used per thread
+  private final ScopedValue<ScopeInstances> requestScope = ScopedValue.newInstance();
+  private final ThreadLocal<ScopeInstances> threadScope = new ThreadLocal<>();
+
+  private ScopeInstances currentRequestScope(Class<?> type) {
+    if (!requestScope.isBound()) {
+      throw new IllegalStateException("no request scope to get an instance of the request scoped " + type.getName());
+    }
+    return requestScope.get();
+  }
+
+  private ScopeInstances currentThreadScope() {
+    var scope = threadScope.get();
+    if (scope == null) {
+      scope = new ScopeInstances();
+      threadScope.set(scope);
+    }
+    return scope;
+  }
+
+  /**
+   * Registers a supplier called at most once per request scope,
+   * an instance can only be looked up inside {@link #runInRequestScope(Runnable)}.
+   * If the instance is {@link AutoCloseable}, it is closed at the end of the request scope.
+   */
+  public <T> void registerRequestScoped(Class<T> type, Supplier<? extends T> supplier) {
+    Objects.requireNonNull(type);
+    Objects.requireNonNull(supplier);
+    registerProvider(type, () -> type.cast(currentRequestScope(type).instance(type, supplier)));
+  }
+
+  /**
+   * Registers a supplier called at most once per thread.
+   * If the instance is {@link AutoCloseable}, it is closed by {@link #closeThreadScope()}.
+   */
+  public <T> void registerThreadScoped(Class<T> type, Supplier<? extends T> supplier) {
+    Objects.requireNonNull(type);
+    Objects.requireNonNull(supplier);
+    registerProvider(type, () -> type.cast(currentThreadScope().instance(type, supplier)));
+  }
+
+  /**
+   * Runs an action inside a new request scope, at the end of the action the request scoped instances
+   * created during the action are closed in the reverse order of their creation.
+   * The request scopes can be nested, an inner scope does not see the instances of an outer scope.
+   */
+  public void runInRequestScope(Runnable action) {
+    Objects.requireNonNull(action);
+    var scope = new ScopeInstances();
+    try (scope) {
+      ScopedValue.where(requestScope, scope).run(action);
+    }
+  }
+
+  /**
+   * Closes the thread scoped instances of the current thread in the reverse order of their creation,
+   * the next lookup of a thread scoped type in the current thread creates a new instance.
+   */
+  public void closeThreadScope() {
+    var scope = threadScope.get();
+    if (scope == null) {
+      return;
+    }
+    threadScope.remove();
+    scope.close();
+  }
+
+  public <T> T lookupInstance(Class<T> type) {
+    Objects.requireNonNull(type);
+    return type.cast(supplierClassValue.get(type).get());
+  }
+
+  static List<PropertyDescriptor> findInjectableProperties(Class<?> type) {
+    var beanInfo = BeanInfos.beanInfo(type);
+    return Arrays.stream(beanInfo.getPropertyDescriptors())
+        .filter(property -> {
+          var setter = property.getWriteMethod();
+          return setter != null && setter.isAnnotationPresent(Inject.class);
+        })
+        .toList();
+  }
+
+  private static Constructor<?> findInjectableConstructor(Class<?> type) {
+    var constructors = Arrays.stream(type.getConstructors())
+        .filter(constructor -> constructor.isAnnotationPresent(Inject.class))
+        .toList();
+    return switch (constructors.size()) {
+      case 0 -> Utils.defaultConstructor(type);
+      case 1 -> constructors.getFirst();
+      default -> throw new IllegalStateException("too many injectable constructors for " + type.getName());
+    };
+  }
+
+  // the types of the parameters of the injectable constructor and of the injectable properties
+  private static List<Class<?>> findDependencies(Class<?> providerClass) {
+    var dependencies = new LinkedHashSet<Class<?>>();
+    dependencies.addAll(List.of(findInjectableConstructor(providerClass).getParameterTypes()));
+    for (var property : findInjectableProperties(providerClass)) {
+      dependencies.add(property.getPropertyType());
+    }
+    return List.copyOf(dependencies);
+  }
+
+  private static final MethodHandle LOOKUP_INSTANCE;
+  static {
+    try {
+      LOOKUP_INSTANCE = MethodHandles.lookup()
+          .findVirtual(InjectorRegistry.class, "lookupInstance", methodType(Object.class, Class.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  // a method handle with no parameter that returns an instance of the type
+  private MethodHandle dependency(Class<?> type) {
+    return MethodHandles.insertArguments(LOOKUP_INSTANCE, 0, this, type)
+        .asType(methodType(type));
+  }
+
+  /**
+   * Compiles the recipe of a provider class into a method handle with no parameter,
+   * that calls the constructor with the dependencies and then the setters.
+   * The dependencies are looked up when an instance is created, not when the class is registered.
+   */
+  private MethodHandle instantiationPlan(Class<?> providerClass) {
+    var lookup = MethodHandles.lookup();
+    var constructor = findInjectableConstructor(providerClass);
+    var plan = Utils.unreflectConstructor(lookup, constructor);
+    // the method handles are combined from the last to the first,
+    // so the dependencies are looked up and the setters are called in order
+    var parameterTypes = constructor.getParameterTypes();
+    for (var i = parameterTypes.length; --i >= 0;) {
+      plan = MethodHandles.collectArguments(plan, i, dependency(parameterTypes[i]));
+    }
+    var instanceType = plan.type().returnType();
+    var initializer = MethodHandles.identity(instanceType);
+    for (var property : findInjectableProperties(providerClass).reversed()) {
+      var setterHandle = Utils.unreflect(lookup, property.getWriteMethod())
+          .asType(methodType(void.class, instanceType, property.getPropertyType()));
+      setterHandle = MethodHandles.collectArguments(setterHandle, 1, dependency(property.getPropertyType()));
+      initializer = MethodHandles.foldArguments(initializer, setterHandle);
+    }
+    return MethodHandles.filterReturnValue(plan, initializer)
+        .asType(methodType(Object.class));
+  }
+
+  /**
+   * The recipe of a provider class, a supplier of instances and the dependencies.
+   */
+  private record ClassRecipe(Supplier<?> supplier, List<Class<?>> dependencies) {}
+
+  /**
+   * Uses the factory generated at compile time if it exists, so neither the reflection
+   * nor {@link java.beans.Introspector} are used, otherwise compiles an instantiation plan.
+   */
+  private ClassRecipe classRecipe(Class<?> providerClass) {
+    var factory = GeneratedFactories.factory(providerClass);
+    if (factory != null) {
+      return new ClassRecipe(() -> factory.create(this), factory.dependencies());
+    }
+    var plan = instantiationPlan(providerClass);
+    return new ClassRecipe(() -> Utils.invokePlan(plan), findDependencies(providerClass));
+  }
+
+  public <T> void registerProviderClass(Class<T> type, Class<? extends T> providerClass) {
+    Objects.requireNonNull(type);
+    Objects.requireNonNull(providerClass);
+    var recipe = classRecipe(providerClass);
+    var supplier = recipe.supplier();
+    registerProvider(type, () -> type.cast(supplier.get()));
+    dependencyMap.put(type, recipe.dependencies());
+  }
+
+  public <T> void registerProviderClass(Class<T> providerClass) {
+    registerProviderClass(providerClass, providerClass);
+  }
+
+  public <T> void registerSingletonClass(Class<T> type, Class<? extends T> providerClass) {
+    Objects.requireNonNull(type);
+    Objects.requireNonNull(providerClass);
+    var recipe = classRecipe(providerClass);
+    var supplier = recipe.supplier();
+    registerSingleton(type, () -> type.cast(supplier.get()));
+    dependencyMap.put(type, recipe.dependencies());
+  }
+
+  public <T> void registerSingletonClass(Class<T> providerClass) {
+    registerSingletonClass(providerClass, providerClass);
+  }
+
+  private DependencyGraph dependencyGraph() {
+    return new DependencyGraph(Set.copyOf(registry.keySet()), Map.copyOf(dependencyMap));
+  }
+
+  /**
+   * Checks that all the dependencies of the types registered with a provider class
+   * are registered and that there is no dependency cycle.
+   * This method should be called once all the types are registered.
+   *
+   * @throws IllegalStateException if a dependency is missing or if there is a cycle.
+   */
+  public void validate() {
+    dependencyGraph().topologicalOrder();
+  }
+
+  /**
+   * Validates the registry and creates all the singletons using as many threads as there are processors.
+   * @see #warmUp(int)
+   */
+  public Map<Class<?>, Duration> warmUp() {
+    return warmUp(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Validates the registry and creates all the singletons, a singleton being created after its dependencies.
+   * The singletons that do not depend on each other are created concurrently by at most
+   * {@code parallelism} threads.
+   * If the creation of a singleton fails, the singletons that depend on it are not created,
+   * the other ones are, and the first failure is rethrown with the other ones added as suppressed.
+   *
+   * @param parallelism the maximum number of threads used to create the singletons.
+   * @return the time taken to create each singleton, not including the time taken
+   *   to create its singleton dependencies, in topological order.
+   * @throws IllegalStateException if a dependency is missing or if there is a cycle.
+   */
+  public Map<Class<?>, Duration> warmUp(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("invalid parallelism " + parallelism);
+    }
+    var graph = dependencyGraph();
+    var order = graph.topologicalOrder();
+    var durationMap = new ConcurrentHashMap<Class<?>, Duration>();
+    var futureMap = new HashMap<Class<?>, CompletableFuture<Void>>();
+    try (var executor = Executors.newFixedThreadPool(parallelism)) {
+      // the dependencies are before in the topological order, so their futures already exist
+      for (var type : order) {
+        var dependencies = graph.dependencies(type).stream()
+            .map(futureMap::get)
+            .toArray(CompletableFuture<?>[]::new);
+        var future = CompletableFuture.allOf(dependencies);
+        if (registry.get(type) instanceof Singleton<?>) {
+          future = future.thenRunAsync(() -> {
+            var start = System.nanoTime();
+            lookupInstance(type);
+            durationMap.put(type, Duration.ofNanos(System.nanoTime() - start));
+          }, executor);
+        }
+        futureMap.put(type, future);
+      }
+      CompletableFuture.allOf(futureMap.values().toArray(CompletableFuture<?>[]::new))
+          .exceptionally(__ -> null)
+          .join();
+    }
+    // a failure is propagated to the dependents, so the same exception may be seen several times
+    var failures = new ArrayList<Throwable>();
+    for (var type : order) {
+      var future = futureMap.get(type);
+      if (future.state() == Future.State.FAILED) {
+        var failure = future.exceptionNow();
+        if (failures.stream().noneMatch(f -> f == failure)) {
+          failures.add(failure);
+        }
+      }
+    }
+    if (!failures.isEmpty()) {
+      var failure = failures.getFirst();
+      failures.stream().skip(1).forEach(failure::addSuppressed);
+      throw Utils.rethrow(failure);
+    }
+    var durations = new LinkedHashMap<Class<?>, Duration>();
+    for (var type : order) {
+      var duration = durationMap.get(type);
+      if (duration != null) {
+        durations.put(type, duration);
+      }
+    }
+    return Collections.unmodifiableMap(durations);
+  }
+}
@@ -0,0 +1,70 @@
+package com.github.forax.framework.injector;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * The instances created in a scope (a request or a thread), at most one instance per type.
+ *
+ * The instances are created under a lock because the threads forked in a request scope
+ * share the instances of the scope. When the scope is closed, the instances that are
+ * {@link AutoCloseable} are closed in the reverse order of their creation,
+ * so an instance is closed before its dependencies.
+ */
+final class ScopeInstances implements AutoCloseable {
+  private static final Object INITIALIZING = new Object();
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final HashMap<Class<?>, Object> instanceMap = new HashMap<>();  // guarded by lock
+  private final ArrayList<Object> instances = new ArrayList<>();  // in creation order, guarded by lock
+  private boolean closed;  // guarded by lock
+
+  public Object instance(Class<?> type, Supplier<?> supplier) {
+    lock.lock();
+    try {
+      if (closed) {
+        throw new IllegalStateException("scope already closed");
+      }
+      var instance = instanceMap.get(type);
+      if (instance == INITIALIZING) {
+        throw new IllegalStateException("cycle detected while initializing the scoped " + type.getName());
+      }
+      if (instance != null) {
+        return instance;
+      }
+      instanceMap.put(type, INITIALIZING);
+      try {
+        instance = supplier.get();
+        if (instance == null) {
+          throw new NullPointerException("the supplier of " + type.getName() + " returns null");
+        }
+      } catch (Throwable e) {  // the supplier may rethrow a checked exception
+        instanceMap.remove(type);
+        throw e;
+      }
+      instanceMap.put(type, instance);
+      instances.add(instance);
+      return instance;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void close() {
+    ArrayList<Object> instances;
+    lock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      instances = this.instances;
+    } finally {
+      lock.unlock();
+    }
+    Utils.closeAll(instances.reversed());
+  }
+}
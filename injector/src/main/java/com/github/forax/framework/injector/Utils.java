@@ -1,25 +1,17 @@
 package com.github.forax.framework.injector;
 
-import java.beans.BeanInfo;
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.List;
 
 final class Utils {
   private Utils() {
     throw new AssertionError();
   }
 
-  public static BeanInfo beanInfo(Class<?> beanType) {
-    try {
-      return Introspector.getBeanInfo(beanType);
-    } catch (IntrospectionException e) {
-      throw new IllegalStateException(e);
-    }
-  }
-
   public static void invokeMethod(Object instance, Method method, Object... args) {
     try {
       method.invoke(instance, args);
@@ -54,8 +46,59 @@ final class Utils {
     }
   }
 
+  public static MethodHandle unreflectConstructor(MethodHandles.Lookup lookup, Constructor<?> constructor) {
+    try {
+      return lookup.unreflectConstructor(constructor);
+    } catch (IllegalAccessException e) {
+      throw (IllegalAccessError) new IllegalAccessError().initCause(e);
+    }
+  }
+
+  public static MethodHandle unreflect(MethodHandles.Lookup lookup, Method method) {
+    try {
+      return lookup.unreflect(method);
+    } catch (IllegalAccessException e) {
+      throw (IllegalAccessError) new IllegalAccessError().initCause(e);
+    }
+  }
+
+  public static Object invokePlan(MethodHandle plan) {
+    try {
+      return (Object) plan.invokeExact();
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  /**
+   * Closes all the instances that are {@link AutoCloseable}, even if one fails,
+   * the first exception is rethrown with the other ones added as suppressed.
+   */
+  public static void closeAll(List<?> instances) {
+    Throwable failure = null;
+    for (var instance : instances) {
+      if (!(instance instanceof AutoCloseable closeable)) {
+        continue;
+      }
+      try {
+        closeable.close();
+      } catch (Throwable e) {
+        if (failure == null) {
+          failure = e;
+        } else {
+          failure.addSuppressed(e);
+        }
+      }
+    }
+    if (failure != null) {
+      throw rethrow(failure);
+    }
+  }
+
   @SuppressWarnings("unchecked")   // very wrong but works
-  private static <T extends Throwable> AssertionError rethrow(Throwable cause) throws T {
+  public static <T extends Throwable> AssertionError rethrow(Throwable cause) throws T {
     throw (T) cause;
   }
 }
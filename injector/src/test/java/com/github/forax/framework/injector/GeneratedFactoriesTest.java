@@ -0,0 +1,88 @@
+package com.github.forax.framework.injector;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class GeneratedFactoriesTest {
+  public record Engine(int power) {}
+
+  public static class Car {
+    private final Engine engine;
+    private String name;
+
+    @Inject
+    public Car(Engine engine) {
+      this.engine = engine;
+    }
+
+    @Inject
+    public void setName(String name) {
+      this.name = name;
+    }
+  }
+
+  // what the processor of the module injector-processor generates, with a marker in the name
+  public static final class Car_Factory implements Factory<Car> {
+    private static final List<Class<?>> DEPENDENCIES = List.of(Engine.class, String.class);
+
+    @Override
+    public List<Class<?>> dependencies() {
+      return DEPENDENCIES;
+    }
+
+    @Override
+    public Car create(InjectorRegistry registry) {
+      var instance = new Car(registry.lookupInstance(Engine.class));
+      instance.setName(registry.lookupInstance(String.class) + " (generated)");
+      return instance;
+    }
+  }
+
+  public static class Wheel {}
+
+  public static class Wheel_Factory {}
+
+  @Test
+  public void generatedFactory() {
+    var registry = new InjectorRegistry();
+    var engine = new Engine(110);
+    registry.registerInstance(Engine.class, engine);
+    registry.registerInstance(String.class, "clio");
+    registry.registerProviderClass(Car.class);
+    var car = registry.lookupInstance(Car.class);
+    assertAll(
+        () -> assertSame(engine, car.engine),
+        () -> assertEquals("clio (generated)", car.name)
+    );
+  }
+
+  @Test
+  public void generatedFactoryDependencies() {
+    var registry = new InjectorRegistry();
+    registry.registerSingletonClass(Car.class);
+    registry.registerInstance(Engine.class, new Engine(110));
+    var e = assertThrows(IllegalStateException.class, registry::validate);
+    assertEquals("no recipe for java.lang.String required by " + Car.class.getName(), e.getMessage());
+  }
+
+  @Test
+  public void noGeneratedFactory() {
+    assertAll(
+        () -> assertNull(GeneratedFactories.factory(Engine.class)),
+        () -> assertNull(GeneratedFactories.factory(String.class)),
+        () -> assertNull(GeneratedFactories.factory(Runnable.class))
+    );
+  }
+
+  @Test
+  public void generatedFactoryNotAFactory() {
+    assertThrows(IllegalStateException.class, () -> GeneratedFactories.factory(Wheel.class));
+  }
+}
@@ -0,0 +1,197 @@
+package com.github.forax.framework.injector;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InjectorRegistryConcurrencyTest {
+  @Test
+  public void registerOnceFromSeveralThreads() throws InterruptedException {
+    record Config(int id) {}
+
+    var registry = new InjectorRegistry();
+    var successes = new AtomicInteger();
+    var failures = new AtomicInteger();
+    var start = new CountDownLatch(1);
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (var i = 0; i < 100; i++) {
+        var id = i;
+        executor.execute(() -> {
+          try {
+            start.await();
+            registry.registerInstance(Config.class, new Config(id));
+            successes.incrementAndGet();
+          } catch (IllegalStateException e) {
+            failures.incrementAndGet();
+          } catch (InterruptedException e) {
+            throw new AssertionError(e);
+          }
+        });
+      }
+      start.countDown();
+    }
+    var config = registry.lookupInstance(Config.class);
+    assertAll(
+        () -> assertEquals(1, successes.get()),
+        () -> assertEquals(99, failures.get()),
+        () -> assertEquals(config, registry.lookupInstance(Config.class))
+    );
+  }
+
+  public record Service() {}
+  public record Plugin() {}
+
+  @Test
+  public void lookupWhileRegistering() {
+    var registry = new InjectorRegistry();
+    registry.registerProviderClass(Service.class);
+    var futures = new ArrayList<Future<?>>();
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (var i = 0; i < 1_000; i++) {
+        futures.add(executor.submit(() -> registry.lookupInstance(Service.class)));
+      }
+      futures.add(executor.submit(() -> registry.registerProviderClass(Plugin.class)));
+    }
+    assertAll(
+        () -> assertEquals(new Service(), registry.lookupInstance(Service.class)),
+        () -> assertEquals(new Plugin(), registry.lookupInstance(Plugin.class))
+    );
+    for (var future : futures) {
+      assertTrue(future.state() == Future.State.SUCCESS);
+    }
+  }
+
+  @Test
+  public void lookupBeforeRegistration() {
+    record Late() {}
+
+    var registry = new InjectorRegistry();
+    assertThrows(IllegalStateException.class, () -> registry.lookupInstance(Late.class));
+    registry.registerInstance(Late.class, new Late());
+    assertEquals(new Late(), registry.lookupInstance(Late.class));
+  }
+
+  @Test
+  public void singletonCreatedOnceFromSeveralThreads() {
+    record Database(int id) {}
+
+    var registry = new InjectorRegistry();
+    var counter = new AtomicInteger();
+    registry.registerSingleton(Database.class, () -> new Database(counter.incrementAndGet()));
+    var start = new CountDownLatch(1);
+    var futures = new ArrayList<Future<Database>>();
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (var i = 0; i < 100; i++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          return registry.lookupInstance(Database.class);
+        }));
+      }
+      start.countDown();
+    }
+    var database = registry.lookupInstance(Database.class);
+    assertEquals(1, counter.get());
+    for (var future : futures) {
+      assertSame(database, future.resultNow());
+    }
+  }
+
+  @Test
+  public void singletonIsLazy() {
+    record Cache() {}
+
+    var registry = new InjectorRegistry();
+    var counter = new AtomicInteger();
+    registry.registerSingleton(Cache.class, () -> {
+      counter.incrementAndGet();
+      return new Cache();
+    });
+    assertEquals(0, counter.get());
+    var cache = registry.lookupInstance(Cache.class);
+    assertAll(
+        () -> assertEquals(1, counter.get()),
+        () -> assertSame(cache, registry.lookupInstance(Cache.class)),
+        () -> assertEquals(1, counter.get())
+    );
+  }
+
+  @Test
+  public void singletonRetriedAfterFailure() {
+    record Connection() {}
+
+    var registry = new InjectorRegistry();
+    var counter = new AtomicInteger();
+    registry.registerSingleton(Connection.class, () -> {
+      if (counter.incrementAndGet() == 1) {
+        throw new IllegalStateException("not yet");
+      }
+      return new Connection();
+    });
+    assertThrows(IllegalStateException.class, () -> registry.lookupInstance(Connection.class));
+    var connection = registry.lookupInstance(Connection.class);
+    assertAll(
+        () -> assertSame(connection, registry.lookupInstance(Connection.class)),
+        () -> assertEquals(2, counter.get())
+    );
+  }
+
+  public record Parent(Child child) {
+    @Inject
+    public Parent {}
+  }
+  public record Child(Parent parent) {
+    @Inject
+    public Child {}
+  }
+
+  @Test
+  public void singletonCycle() {
+    var registry = new InjectorRegistry();
+    registry.registerSingletonClass(Parent.class);
+    registry.registerSingletonClass(Child.class);
+    assertThrows(IllegalStateException.class, () -> registry.lookupInstance(Parent.class));
+  }
+
+  public static class Engine {}
+  public static class Car {
+    private final Engine engine;
+
+    @Inject
+    public Car(Engine engine) {
+      this.engine = engine;
+    }
+  }
+
+  @Test
+  public void singletonClass() {
+    var registry = new InjectorRegistry();
+    registry.registerSingletonClass(Engine.class);
+    registry.registerProviderClass(Car.class);
+    var car1 = registry.lookupInstance(Car.class);
+    var car2 = registry.lookupInstance(Car.class);
+    assertAll(
+        () -> assertNotSame(car1, car2),
+        () -> assertSame(car1.engine, car2.engine)
+    );
+  }
+
+  @Test
+  public void singletonPrecondition() {
+    var registry = new InjectorRegistry();
+    assertAll(
+        () -> assertThrows(NullPointerException.class, () -> registry.registerSingleton(null, Object::new)),
+        () -> assertThrows(NullPointerException.class, () -> registry.registerSingleton(Object.class, null))
+    );
+  }
+}
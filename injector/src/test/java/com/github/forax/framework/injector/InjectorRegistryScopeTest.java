@@ -0,0 +1,185 @@
+package com.github.forax.framework.injector;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InjectorRegistryScopeTest {
+  record Session(int id, List<String> events) implements AutoCloseable {
+    @Override
+    public void close() {
+      events.add("close session " + id);
+    }
+  }
+
+  record Tracing(Session session, List<String> events) implements AutoCloseable {
+    @Override
+    public void close() {
+      events.add("close tracing " + session.id());
+    }
+  }
+
+  @Test
+  public void requestScoped() {
+    var registry = new InjectorRegistry();
+    var counter = new AtomicInteger();
+    var events = new ArrayList<String>();
+    registry.registerRequestScoped(Session.class, () -> new Session(counter.incrementAndGet(), events));
+    var sessions = new ArrayList<Session>();
+    for (var i = 0; i < 2; i++) {
+      registry.runInRequestScope(() -> {
+        var session = registry.lookupInstance(Session.class);
+        assertSame(session, registry.lookupInstance(Session.class));
+        sessions.add(session);
+      });
+    }
+    assertAll(
+        () -> assertEquals(List.of(new Session(1, events), new Session(2, events)), sessions),
+        () -> assertEquals(List.of("close session 1", "close session 2"), events)
+    );
+  }
+
+  @Test
+  public void requestScopedOutsideOfAScope() {
+    var registry = new InjectorRegistry();
+    registry.registerRequestScoped(Session.class, () -> new Session(0, List.of()));
+    assertThrows(IllegalStateException.class, () -> registry.lookupInstance(Session.class));
+  }
+
+  @Test
+  public void requestScopedClosedInReverseOrder() {
+    var registry = new InjectorRegistry();
+    var events = new ArrayList<String>();
+    registry.registerRequestScoped(Session.class, () -> new Session(1, events));
+    registry.registerRequestScoped(Tracing.class, () -> new Tracing(registry.lookupInstance(Session.class), events));
+    registry.runInRequestScope(() -> registry.lookupInstance(Tracing.class));
+    assertEquals(List.of("close tracing 1", "close session 1"), events);
+  }
+
+  @Test
+  public void requestScopedClosedWhenTheActionFails() {
+    var registry = new InjectorRegistry();
+    var events = new ArrayList<String>();
+    registry.registerRequestScoped(Session.class, () -> new Session(1, events));
+    assertThrows(IllegalStateException.class, () -> registry.runInRequestScope(() -> {
+      registry.lookupInstance(Session.class);
+      throw new IllegalStateException("oops");
+    }));
+    assertEquals(List.of("close session 1"), events);
+  }
+
+  @Test
+  public void requestScopeNested() {
+    var registry = new InjectorRegistry();
+    var counter = new AtomicInteger();
+    registry.registerRequestScoped(Session.class, () -> new Session(counter.incrementAndGet(), new ArrayList<>()));
+    registry.runInRequestScope(() -> {
+      var outer = registry.lookupInstance(Session.class);
+      registry.runInRequestScope(() -> assertNotSame(outer, registry.lookupInstance(Session.class)));
+      assertSame(outer, registry.lookupInstance(Session.class));
+    });
+  }
+
+  @Test
+  public void requestScopedPerVirtualThread() throws InterruptedException {
+    var registry = new InjectorRegistry();
+    var counter = new AtomicInteger();
+    var events = new CopyOnWriteArrayList<String>();
+    registry.registerRequestScoped(Session.class, () -> new Session(counter.incrementAndGet(), events));
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (var i = 0; i < 10_000; i++) {
+        executor.execute(() -> registry.runInRequestScope(() -> {
+          var session = registry.lookupInstance(Session.class);
+          assertSame(session, registry.lookupInstance(Session.class));
+        }));
+      }
+    }
+    assertAll(
+        () -> assertEquals(10_000, counter.get()),
+        () -> assertEquals(10_000, events.size())
+    );
+  }
+
+  @Test
+  public void threadScoped() throws InterruptedException {
+    var registry = new InjectorRegistry();
+    var counter = new AtomicInteger();
+    var events = new CopyOnWriteArrayList<String>();
+    registry.registerThreadScoped(Session.class, () -> new Session(counter.incrementAndGet(), events));
+    var session = registry.lookupInstance(Session.class);
+    var otherSession = new Session[1];
+    var thread = Thread.ofVirtual().start(() -> {
+      otherSession[0] = registry.lookupInstance(Session.class);
+      registry.closeThreadScope();
+    });
+    thread.join();
+    assertAll(
+        () -> assertSame(session, registry.lookupInstance(Session.class)),
+        () -> assertNotSame(session, otherSession[0]),
+        () -> assertEquals(List.of("close session 2"), events)
+    );
+    registry.closeThreadScope();
+    assertAll(
+        () -> assertEquals(List.of("close session 2", "close session 1"), events),
+        () -> assertEquals(3, registry.lookupInstance(Session.class).id())
+    );
+    registry.closeThreadScope();
+  }
+
+  @Test
+  public void closeThreadScopeWithoutInstance() {
+    var registry = new InjectorRegistry();
+    registry.closeThreadScope();
+  }
+
+  @Test
+  public void scopedCycle() {
+    record Cycle() {}
+
+    var registry = new InjectorRegistry();
+    registry.registerRequestScoped(Cycle.class, () -> registry.lookupInstance(Cycle.class));
+    registry.runInRequestScope(() ->
+        assertThrows(IllegalStateException.class, () -> registry.lookupInstance(Cycle.class)));
+  }
+
+  @Test
+  public void scopedSupplierFailure() {
+    record Connection() {}
+
+    var registry = new InjectorRegistry();
+    var counter = new AtomicInteger();
+    registry.registerRequestScoped(Connection.class, () -> {
+      if (counter.incrementAndGet() == 1) {
+        throw new IllegalStateException("not yet");
+      }
+      return new Connection();
+    });
+    registry.runInRequestScope(() -> {
+      assertThrows(IllegalStateException.class, () -> registry.lookupInstance(Connection.class));
+      assertTrue(registry.lookupInstance(Connection.class) != null);
+    });
+  }
+
+  @Test
+  public void scopePreconditions() {
+    var registry = new InjectorRegistry();
+    assertAll(
+        () -> assertThrows(NullPointerException.class, () -> registry.registerRequestScoped(null, Object::new)),
+        () -> assertThrows(NullPointerException.class, () -> registry.registerRequestScoped(Object.class, null)),
+        () -> assertThrows(NullPointerException.class, () -> registry.registerThreadScoped(null, Object::new)),
+        () -> assertThrows(NullPointerException.class, () -> registry.registerThreadScoped(Object.class, null)),
+        () -> assertThrows(NullPointerException.class, () -> registry.runInRequestScope(null))
+    );
+  }
+}
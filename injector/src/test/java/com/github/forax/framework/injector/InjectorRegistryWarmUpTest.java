@@ -0,0 +1,226 @@
+package com.github.forax.framework.injector;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InjectorRegistryWarmUpTest {
+  private static final List<String> EVENTS = new CopyOnWriteArrayList<>();
+
+  public static class Pool {
+    public Pool() {
+      EVENTS.add("pool");
+    }
+  }
+
+  public static class Cache {
+    private final Pool pool;
+
+    @Inject
+    public Cache(Pool pool) {
+      this.pool = pool;
+      EVENTS.add("cache");
+    }
+  }
+
+  public static class Service {
+    private Cache cache;
+
+    public Service() {
+      EVENTS.add("service");
+    }
+
+    @Inject
+    public void setCache(Cache cache) {
+      this.cache = cache;
+    }
+  }
+
+  public static class Clock {
+    public Clock() {
+      EVENTS.add("clock");
+    }
+  }
+
+  @Test
+  public void warmUpInTopologicalOrder() {
+    EVENTS.clear();
+    var registry = new InjectorRegistry();
+    registry.registerSingletonClass(Service.class);
+    registry.registerSingletonClass(Cache.class);
+    registry.registerSingletonClass(Pool.class);
+    registry.warmUp();
+    var service = registry.lookupInstance(Service.class);
+    assertAll(
+        () -> assertEquals(List.of("pool", "cache", "service"), EVENTS),
+        () -> assertSame(registry.lookupInstance(Cache.class), service.cache),
+        () -> assertSame(registry.lookupInstance(Pool.class), service.cache.pool)
+    );
+  }
+
+  @Test
+  public void warmUpOnlySingletons() {
+    EVENTS.clear();
+    var registry = new InjectorRegistry();
+    registry.registerProviderClass(Service.class);
+    registry.registerSingletonClass(Cache.class);
+    registry.registerProviderClass(Pool.class);
+    registry.registerSingletonClass(Clock.class);
+    registry.warmUp();
+    assertAll(
+        () -> assertEquals(3, EVENTS.size()),
+        () -> assertTrue(EVENTS.containsAll(List.of("pool", "cache", "clock"))),
+        () -> assertTrue(EVENTS.indexOf("pool") < EVENTS.indexOf("cache"))
+    );
+  }
+
+  @Test
+  public void validate() {
+    var registry = new InjectorRegistry();
+    registry.registerProviderClass(Service.class);
+    registry.registerProviderClass(Cache.class);
+    registry.registerInstance(Pool.class, new Pool());
+    registry.validate();
+  }
+
+  @Test
+  public void validateMissingBinding() {
+    var registry = new InjectorRegistry();
+    registry.registerProviderClass(Service.class);
+    registry.registerProviderClass(Cache.class);
+    var e = assertThrows(IllegalStateException.class, registry::validate);
+    assertEquals("no recipe for " + Pool.class.getName() + " required by " + Cache.class.getName(), e.getMessage());
+  }
+
+  public record A(B b) {
+    @Inject
+    public A {}
+  }
+  public record B(C c) {
+    @Inject
+    public B {}
+  }
+  public record C(A a) {
+    @Inject
+    public C {}
+  }
+
+  @Test
+  public void validateCycle() {
+    var registry = new InjectorRegistry();
+    registry.registerProviderClass(A.class);
+    registry.registerProviderClass(B.class);
+    registry.registerSingletonClass(C.class);
+    var e = assertThrows(IllegalStateException.class, registry::warmUp);
+    assertEquals("dependency cycle " + A.class.getName() + " -> " + B.class.getName()
+        + " -> " + C.class.getName() + " -> " + A.class.getName(), e.getMessage());
+  }
+
+  public static class Broken {
+    public Broken() {
+      throw new IllegalStateException("broken");
+    }
+  }
+
+  @Test
+  public void warmUpFailure() {
+    var registry = new InjectorRegistry();
+    registry.registerSingletonClass(Broken.class);
+    registry.registerSingletonClass(Clock.class);
+    var e = assertThrows(IllegalStateException.class, registry::warmUp);
+    assertEquals("broken", e.getMessage());
+  }
+
+  @Test
+  public void topologicalOrder() {
+    var graph = new DependencyGraph(
+        Set.of(Service.class, Cache.class, Pool.class, Clock.class),
+        Map.of(Service.class, List.of(Cache.class), Cache.class, List.of(Pool.class)));
+    assertEquals(List.of(Pool.class, Cache.class, Clock.class, Service.class), graph.topologicalOrder());
+  }
+
+  @Test
+  public void warmUpDurations() {
+    var registry = new InjectorRegistry();
+    registry.registerSingletonClass(Service.class);
+    registry.registerProviderClass(Cache.class);
+    registry.registerSingletonClass(Pool.class);
+    registry.registerSingletonClass(Clock.class);
+    var durations = registry.warmUp(2);
+    assertAll(
+        () -> assertEquals(List.of(Pool.class, Clock.class, Service.class), List.copyOf(durations.keySet())),
+        () -> assertTrue(durations.values().stream().noneMatch(Duration::isNegative))
+    );
+  }
+
+  private static final CyclicBarrier BARRIER = new CyclicBarrier(2);
+
+  public static class Left {
+    public Left() throws Exception {
+      BARRIER.await(10, TimeUnit.SECONDS);
+    }
+  }
+
+  public static class Right {
+    public Right() throws Exception {
+      BARRIER.await(10, TimeUnit.SECONDS);
+    }
+  }
+
+  public static class Both {
+    @Inject
+    public Both(Left left, Right right) {}
+  }
+
+  @Test
+  public void warmUpIndependentSingletonsConcurrently() {
+    BARRIER.reset();
+    var registry = new InjectorRegistry();
+    registry.registerSingletonClass(Both.class);
+    registry.registerSingletonClass(Left.class);
+    registry.registerSingletonClass(Right.class);
+    // Left and Right wait for each other, so they have to be created concurrently
+    var durations = registry.warmUp(2);
+    assertEquals(Both.class, List.copyOf(durations.keySet()).getLast());
+  }
+
+  public static class NeedBroken {
+    @Inject
+    public NeedBroken(Broken broken) {
+      EVENTS.add("need broken");
+    }
+  }
+
+  @Test
+  public void warmUpFailureSkipsDependents() {
+    EVENTS.clear();
+    var registry = new InjectorRegistry();
+    registry.registerSingletonClass(Broken.class);
+    registry.registerSingletonClass(NeedBroken.class);
+    registry.registerSingletonClass(Clock.class);
+    var e = assertThrows(IllegalStateException.class, () -> registry.warmUp(1));
+    assertAll(
+        () -> assertEquals("broken", e.getMessage()),
+        () -> assertEquals(0, e.getSuppressed().length),
+        () -> assertEquals(List.of("clock"), EVENTS)
+    );
+  }
+
+  @Test
+  public void warmUpInvalidParallelism() {
+    var registry = new InjectorRegistry();
+    assertThrows(IllegalArgumentException.class, () -> registry.warmUp(0));
+  }
+}
@@ -0,0 +1,157 @@
+package com.github.forax.framework.injector;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class InstantiationPlanTest {
+  public record Events(List<String> list) {
+    void add(String event) {
+      list.add(event);
+    }
+  }
+
+  public record Engine(int power) {}
+
+  public static class Car {
+    private final Events events;
+    private final Engine engine;
+    private String name;
+    private Integer doors;
+
+    @Inject
+    public Car(Events events, Engine engine) {
+      this.events = events;
+      this.engine = engine;
+      events.add("constructor");
+    }
+
+    @Inject
+    public void setName(String name) {
+      this.name = name;
+      events.add("name");
+    }
+
+    @Inject
+    public void setDoors(Integer doors) {
+      this.doors = doors;
+      events.add("doors");
+    }
+
+    public void setColor(String color) {
+      throw new AssertionError();
+    }
+  }
+
+  @Test
+  public void constructorAndSetterInjection() {
+    var registry = new InjectorRegistry();
+    var events = new Events(new ArrayList<>());
+    var engine = new Engine(110);
+    registry.registerProviderClass(Car.class);
+    // the dependencies are looked up when an instance is created, not when the class is registered
+    registry.registerInstance(Events.class, events);
+    registry.registerInstance(Engine.class, engine);
+    registry.registerInstance(String.class, "clio");
+    registry.registerInstance(Integer.class, 5);
+    var car = registry.lookupInstance(Car.class);
+    assertAll(
+        () -> assertSame(engine, car.engine),
+        () -> assertSame(events, car.events),
+        () -> assertEquals("clio", car.name),
+        () -> assertEquals(5, car.doors),
+        // the setters are called after the constructor, in the order of the properties
+        () -> assertEquals(List.of("constructor", "doors", "name"), events.list())
+    );
+  }
+
+  @Test
+  public void newInstanceForEachLookup() {
+    var registry = new InjectorRegistry();
+    registry.registerInstance(Events.class, new Events(new ArrayList<>()));
+    registry.registerInstance(Engine.class, new Engine(110));
+    registry.registerInstance(String.class, "clio");
+    registry.registerInstance(Integer.class, 5);
+    registry.registerProviderClass(Car.class);
+    var car1 = registry.lookupInstance(Car.class);
+    var car2 = registry.lookupInstance(Car.class);
+    assertAll(
+        () -> assertNotSame(car1, car2),
+        () -> assertSame(car1.engine, car2.engine)
+    );
+  }
+
+  @Test
+  public void missingDependency() {
+    var registry = new InjectorRegistry();
+    registry.registerInstance(Events.class, new Events(new ArrayList<>()));
+    registry.registerInstance(Engine.class, new Engine(110));
+    registry.registerProviderClass(Car.class);
+    assertThrows(IllegalStateException.class, () -> registry.lookupInstance(Car.class));
+  }
+
+  public static class FailingConstructor {
+    public FailingConstructor() {
+      throw new UnsupportedOperationException("constructor");
+    }
+  }
+
+  public static class FailingConstructorWithCheckedException {
+    public FailingConstructorWithCheckedException() throws IOException {
+      throw new IOException("constructor");
+    }
+  }
+
+  public static class FailingSetter {
+    @Inject
+    public void setName(String name) {
+      throw new IllegalArgumentException(name);
+    }
+  }
+
+  @Test
+  public void exceptionsAreNotWrapped() {
+    var registry = new InjectorRegistry();
+    registry.registerInstance(String.class, "setter");
+    registry.registerProviderClass(FailingConstructor.class);
+    registry.registerProviderClass(FailingConstructorWithCheckedException.class);
+    registry.registerProviderClass(FailingSetter.class);
+    assertAll(
+        () -> assertEquals("constructor",
+            assertThrows(UnsupportedOperationException.class, () -> registry.lookupInstance(FailingConstructor.class)).getMessage()),
+        () -> assertEquals("constructor",
+            assertThrows(IOException.class, () -> registry.lookupInstance(FailingConstructorWithCheckedException.class)).getMessage()),
+        () -> assertEquals("setter",
+            assertThrows(IllegalArgumentException.class, () -> registry.lookupInstance(FailingSetter.class)).getMessage())
+    );
+  }
+
+  public static class TwoConstructors {
+    @Inject
+    public TwoConstructors() {}
+
+    @Inject
+    public TwoConstructors(String name) {}
+  }
+
+  public static class NoDefaultConstructor {
+    public NoDefaultConstructor(String name) {}
+  }
+
+  @Test
+  public void invalidProviderClasses() {
+    var registry = new InjectorRegistry();
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> registry.registerProviderClass(TwoConstructors.class)),
+        () -> assertThrows(NoSuchMethodError.class, () -> registry.registerProviderClass(NoDefaultConstructor.class))
+    );
+  }
+}
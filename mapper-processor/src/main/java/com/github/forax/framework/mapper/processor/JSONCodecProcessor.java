@@ -0,0 +1,342 @@
+package com.github.forax.framework.mapper.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.beans.Introspector;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Generates at compile time the {@code Codec} of the records and the beans annotated with {@code @JSONCodec}
+ * or having a record component or a getter annotated with {@code @JSONProperty}.
+ *
+ * The classes that can not be decoded without reflection (generic classes, non-public classes, etc.)
+ * are reported as a note and left to the reflection.
+ */
+@SupportedAnnotationTypes({JSONCodecProcessor.JSON_CODEC, JSONCodecProcessor.JSON_PROPERTY})
+public final class JSONCodecProcessor extends AbstractProcessor {
+  static final String JSON_CODEC = "com.github.forax.framework.mapper.JSONCodec";
+  static final String JSON_PROPERTY = "com.github.forax.framework.mapper.JSONProperty";
+
+  private final Set<String> generated = new LinkedHashSet<>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    var types = new LinkedHashSet<TypeElement>();
+    for (var annotation : annotations) {
+      for (var element : roundEnv.getElementsAnnotatedWith(annotation)) {
+        switch (element.getKind()) {
+          case RECORD, CLASS -> types.add((TypeElement) element);
+          case METHOD, RECORD_COMPONENT -> types.add((TypeElement) element.getEnclosingElement());
+          default -> {}
+        }
+      }
+    }
+    for (var type : types) {
+      var binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+      if (generated.add(binaryName)) {
+        checkSupported(type).ifPresentOrElse(
+            reason -> processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "no codec generated, " + reason, type),
+            () -> generate(type, binaryName));
+      }
+    }
+    return false;  // @JSONProperty is also used at runtime
+  }
+
+  /**
+   * A property of a record or a bean.
+   * @param key the JSON key.
+   * @param type the type of the property.
+   * @param getter the name of the getter or null.
+   * @param setter the name of the setter or null.
+   */
+  private record Property(String key, TypeMirror type, String getter, String setter) { }
+
+  private Optional<String> checkSupported(TypeElement type) {
+    if (!type.getTypeParameters().isEmpty()) {
+      return Optional.of("the class is generic");
+    }
+    if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+      return Optional.of("the class is abstract");
+    }
+    for (Element element = type; element instanceof TypeElement typeElement; element = element.getEnclosingElement()) {
+      if (!typeElement.getModifiers().contains(Modifier.PUBLIC)) {
+        return Optional.of("the class " + typeElement.getQualifiedName() + " is not public");
+      }
+      if (typeElement.getNestingKind() == NestingKind.MEMBER && !typeElement.getModifiers().contains(Modifier.STATIC)
+          && typeElement.getKind() == ElementKind.CLASS) {
+        return Optional.of("the class " + typeElement.getQualifiedName() + " is an inner class");
+      }
+      if (typeElement.getNestingKind() == NestingKind.LOCAL || typeElement.getNestingKind() == NestingKind.ANONYMOUS) {
+        return Optional.of("the class is a local class");
+      }
+    }
+    for (var property : properties(type)) {
+      if (!isExpressible(property.type)) {
+        return Optional.of("the type of the property " + property.key + " is " + property.type);
+      }
+    }
+    return Optional.empty();
+  }
+
+  private static boolean isExpressible(TypeMirror type) {
+    return switch (type.getKind()) {
+      case BOOLEAN, BYTE, SHORT, CHAR, INT, LONG, FLOAT, DOUBLE -> true;
+      case ARRAY -> isExpressible(((ArrayType) type).getComponentType());
+      case DECLARED -> ((DeclaredType) type).getTypeArguments().stream().allMatch(JSONCodecProcessor::isExpressible);
+      default -> false;
+    };
+  }
+
+  private List<Property> properties(TypeElement type) {
+    if (type.getKind() == ElementKind.RECORD) {
+      return type.getRecordComponents().stream()
+          .map(component -> new Property(key(component, component.getSimpleName().toString()), component.asType(),
+              component.getAccessor().getSimpleName().toString(), null))
+          .toList();
+    }
+    // same rules and same order as java.beans.Introspector
+    var getters = new TreeMap<String, ExecutableElement>();
+    var setters = new TreeMap<String, ExecutableElement>();
+    for (var method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+      if (!method.getModifiers().contains(Modifier.PUBLIC) || method.getModifiers().contains(Modifier.STATIC)) {
+        continue;
+      }
+      var name = method.getSimpleName().toString();
+      var parameterCount = method.getParameters().size();
+      var returnKind = method.getReturnType().getKind();
+      if (parameterCount == 0 && name.startsWith("get") && name.length() > 3 && returnKind != TypeKind.VOID) {
+        getters.putIfAbsent(Introspector.decapitalize(name.substring(3)), method);
+      } else if (parameterCount == 0 && name.startsWith("is") && name.length() > 2 && returnKind == TypeKind.BOOLEAN) {
+        getters.putIfAbsent(Introspector.decapitalize(name.substring(2)), method);
+      } else if (parameterCount == 1 && name.startsWith("set") && name.length() > 3 && returnKind == TypeKind.VOID) {
+        setters.putIfAbsent(Introspector.decapitalize(name.substring(3)), method);
+      }
+    }
+    getters.remove("class");
+    var names = new TreeMap<String, Property>();
+    getters.forEach((name, getter) -> {
+      var setter = setters.get(name);
+      names.put(name, new Property(key(getter, name), getter.getReturnType(), getter.getSimpleName().toString(),
+          setter == null ? null : setter.getSimpleName().toString()));
+    });
+    setters.forEach((name, setter) -> names.computeIfAbsent(name,
+        __ -> new Property(name, setter.getParameters().getFirst().asType(), null, setter.getSimpleName().toString())));
+    return List.copyOf(names.values());
+  }
+
+  private static String key(Element element, String name) {
+    return element.getAnnotationMirrors().stream()
+        .filter(mirror -> ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(JSON_PROPERTY))
+        .flatMap(mirror -> mirror.getElementValues().values().stream())
+        .map(value -> (String) value.getValue())
+        .findFirst()
+        .orElse(name);
+  }
+
+  private void generate(TypeElement type, String binaryName) {
+    var packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+    var codecSimpleName = binaryName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1) + "_JSONCodec";
+    var source = type.getKind() == ElementKind.RECORD ?
+        generateRecordCodec(type, binaryName, packageName, codecSimpleName) :
+        generateBeanCodec(type, binaryName, packageName, codecSimpleName);
+    var codecName = packageName.isEmpty() ? codecSimpleName : packageName + "." + codecSimpleName;
+    try (var writer = processingEnv.getFiler().createSourceFile(codecName, type).openWriter()) {
+      writer.write(source);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static String header(String packageName, String className, String codecSimpleName) {
+    return (packageName.isEmpty() ? "" : "package " + packageName + ";\n\n") + """
+        import com.github.forax.framework.mapper.Codec;
+        import com.github.forax.framework.mapper.JSONReader;
+
+        import java.lang.reflect.Type;
+        import java.util.List;
+
+        @javax.annotation.processing.Generated("%s")
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public final class %s implements Codec<%s> {
+        """.formatted(JSONCodecProcessor.class.getName(), codecSimpleName, className);
+  }
+
+  private static String keys(List<Property> properties) {
+    return properties.stream().map(property -> quote(property.key)).collect(joining(", ", "List.of(", ")"));
+  }
+
+  private static String typeConstants(List<Property> properties) {
+    var builder = new StringBuilder();
+    for (var i = 0; i < properties.size(); i++) {
+      var type = properties.get(i).type;
+      if (!isRawExpressible(type)) {
+        builder.append("  private static final Type TYPE_").append(i)
+            .append(" = Codec.type(new JSONReader.TypeReference<").append(type).append(">() {});\n");
+      }
+    }
+    return builder.toString();
+  }
+
+  private static boolean isRawExpressible(TypeMirror type) {
+    return switch (type.getKind()) {
+      case ARRAY -> isRawExpressible(((ArrayType) type).getComponentType());
+      case DECLARED -> ((DeclaredType) type).getTypeArguments().isEmpty();
+      default -> true;
+    };
+  }
+
+  private static String typeExpression(List<Property> properties, int index) {
+    var type = properties.get(index).type;
+    return isRawExpressible(type) ? type + ".class" : "TYPE_" + index;
+  }
+
+  private static String defaultValue(TypeMirror type) {
+    return switch (type.getKind()) {
+      case BOOLEAN -> "false";
+      case BYTE -> "(byte) 0";
+      case SHORT -> "(short) 0";
+      case CHAR -> "'\\0'";
+      case INT -> "0";
+      case LONG -> "0L";
+      case FLOAT -> "0f";
+      case DOUBLE -> "0.0";
+      default -> "null";
+    };
+  }
+
+  // mimic the widening conversions done by the reflection
+  private static String conversion(TypeMirror type, String value) {
+    return switch (type.getKind()) {
+      case LONG -> "((Number) " + value + ").longValue()";
+      case FLOAT -> "((Number) " + value + ").floatValue()";
+      case DOUBLE -> "((Number) " + value + ").doubleValue()";
+      default -> "(" + type + ") " + value;
+    };
+  }
+
+  private static String quote(String text) {
+    return "\"" + text.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+  }
+
+  // a switch expression needs at least one case that is not a throw
+  private static String valueMethod(String className, List<Property> properties) {
+    var builder = new StringBuilder("  @Override\n  public Object value(").append(className).append(" instance, int index) {\n");
+    if (properties.isEmpty()) {
+      return builder.append("    throw new IndexOutOfBoundsException(index);\n  }\n\n").toString();
+    }
+    builder.append("    return switch (index) {\n");
+    for (var i = 0; i < properties.size(); i++) {
+      builder.append("      case ").append(i).append(" -> instance.").append(properties.get(i).getter).append("();\n");
+    }
+    return builder.append("      default -> throw new IndexOutOfBoundsException(index);\n    };\n  }\n\n").toString();
+  }
+
+  private static String indexSwitch(List<Property> properties, String kind, String binaryName) {
+    if (properties.isEmpty()) {
+      return "  private static int index(String key) {\n    throw new IllegalStateException(\"unknown key \" + key + \" for "
+          + kind + " " + binaryName + "\");\n  }\n";
+    }
+    var builder = new StringBuilder("  private static int index(String key) {\n    return switch (key) {\n");
+    for (var i = 0; i < properties.size(); i++) {
+      builder.append("      case ").append(quote(properties.get(i).key)).append(" -> ").append(i).append(";\n");
+    }
+    return builder.append("      default -> throw new IllegalStateException(\"unknown key \" + key + \" for ")
+        .append(kind).append(" ").append(binaryName).append("\");\n    };\n  }\n").toString();
+  }
+
+  private static String typeProvider(List<Property> properties) {
+    if (properties.isEmpty()) {
+      return "key -> { index(key); throw new AssertionError(); }";
+    }
+    var builder = new StringBuilder("key -> switch (index(key)) {\n");
+    for (var i = 0; i < properties.size(); i++) {
+      builder.append("          case ").append(i).append(" -> ").append(typeExpression(properties, i)).append(";\n");
+    }
+    return builder.append("          default -> throw new AssertionError();\n        }").toString();
+  }
+
+  private String generateRecordCodec(TypeElement type, String binaryName, String packageName, String codecSimpleName) {
+    var className = type.getQualifiedName().toString();
+    var properties = properties(type);
+    var builder = new StringBuilder(header(packageName, className, codecSimpleName));
+    builder.append("  private static final List<String> KEYS = ").append(keys(properties)).append(";\n");
+    builder.append(typeConstants(properties)).append('\n');
+    builder.append("  @Override\n  public List<String> keys() {\n    return KEYS;\n  }\n\n");
+    builder.append(valueMethod(className, properties));
+    builder.append(indexSwitch(properties, "record", binaryName)).append('\n');
+    builder.append("  @Override\n  public JSONReader.ObjectBuilder<?> objectBuilder() {\n");
+    builder.append("    return new JSONReader.ObjectBuilder<Object[]>(\n");
+    builder.append("        ").append(typeProvider(properties)).append(",\n");
+    builder.append("        () -> new Object[] { ")
+        .append(properties.stream().map(property -> defaultValue(property.type)).collect(joining(", "))).append(" },\n");
+    builder.append("        (array, key, value) -> array[index(key)] = value,\n");
+    var arguments = new ArrayList<String>();
+    for (var i = 0; i < properties.size(); i++) {
+      arguments.add(conversion(properties.get(i).type, "array[" + i + "]"));
+    }
+    builder.append("        array -> new ").append(className).append("(").append(String.join(", ", arguments)).append(")\n");
+    builder.append("    );\n  }\n}\n");
+    return builder.toString();
+  }
+
+  private String generateBeanCodec(TypeElement type, String binaryName, String packageName, String codecSimpleName) {
+    var className = type.getQualifiedName().toString();
+    var properties = properties(type);
+    var readables = properties.stream().filter(property -> property.getter != null).toList();
+    var writables = properties.stream().filter(property -> property.setter != null).toList();
+    var hasDefaultConstructor = ElementFilter.constructorsIn(type.getEnclosedElements()).stream()
+        .anyMatch(constructor -> constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC));
+
+    var builder = new StringBuilder(header(packageName, className, codecSimpleName));
+    builder.append("  private static final List<String> KEYS = ").append(keys(readables)).append(";\n");
+    builder.append(typeConstants(writables)).append('\n');
+    builder.append("  @Override\n  public List<String> keys() {\n    return KEYS;\n  }\n\n");
+    builder.append(valueMethod(className, readables));
+    builder.append(indexSwitch(writables, "bean", binaryName)).append('\n');
+    builder.append("  @Override\n  public JSONReader.ObjectBuilder<?> objectBuilder() {\n");
+    if (!hasDefaultConstructor) {
+      builder.append("    throw new NoSuchMethodError(\"no public default constructor ").append(binaryName).append("\");\n  }\n}\n");
+      return builder.toString();
+    }
+    builder.append("    return new JSONReader.ObjectBuilder<Object>(\n");
+    builder.append("        ").append(typeProvider(writables)).append(",\n");
+    builder.append("        () -> new ").append(className).append("(),\n");
+    builder.append("        (bean, key, value) -> {\n          switch (index(key)) {\n");
+    for (var i = 0; i < writables.size(); i++) {
+      var property = writables.get(i);
+      builder.append("            case ").append(i).append(" -> ((").append(className).append(") bean).")
+          .append(property.setter).append("(").append(conversion(property.type, "value")).append(");\n");
+    }
+    builder.append("            default -> throw new AssertionError();\n          }\n        },\n");
+    builder.append("        bean -> bean\n    );\n  }\n}\n");
+    return builder.toString();
+  }
+}
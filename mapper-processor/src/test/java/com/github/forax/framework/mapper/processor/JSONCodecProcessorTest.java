@@ -0,0 +1,148 @@
+package com.github.forax.framework.mapper.processor;
+
+import com.github.forax.framework.mapper.JSONReader;
+import com.github.forax.framework.mapper.JSONWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JSONCodecProcessorTest {
+  private static ClassLoader compile(Path directory, Map<String, String> sources) throws IOException {
+    var sourceDirectory = Files.createDirectories(directory.resolve("src"));
+    var classDirectory = Files.createDirectories(directory.resolve("classes"));
+    var sourceFiles = new ArrayList<String>();
+    for (var entry : sources.entrySet()) {
+      var file = sourceDirectory.resolve(entry.getKey().replace('.', '/') + ".java");
+      Files.createDirectories(file.getParent());
+      Files.writeString(file, entry.getValue());
+      sourceFiles.add(file.toString());
+    }
+    var compiler = ToolProvider.getSystemJavaCompiler();
+    var arguments = new ArrayList<>(List.of(
+        "--release", "" + Runtime.version().feature(), "--enable-preview",
+        "-classpath", System.getProperty("java.class.path"),
+        "-processor", JSONCodecProcessor.class.getName(),
+        "-s", sourceDirectory.toString(),
+        "-d", classDirectory.toString()));
+    arguments.addAll(sourceFiles);
+    assertEquals(0, compiler.run(null, null, null, arguments.toArray(String[]::new)));
+    return new URLClassLoader(new URL[] { classDirectory.toUri().toURL() }, JSONCodecProcessorTest.class.getClassLoader());
+  }
+
+  private static JSONReader.TypeMatcher listTypeMatcher() {
+    return type -> Optional.of(type)
+        .flatMap(t -> t instanceof ParameterizedType parameterizedType? Optional.of(parameterizedType): Optional.empty())
+        .filter(t -> t.getRawType() == List.class)
+        .map(t -> JSONReader.ObjectBuilder.list(t.getActualTypeArguments()[0]));
+  }
+
+  @Test
+  public void recordCodec(@TempDir Path directory) throws Exception {
+    var loader = compile(directory, Map.of("sample.Trade", """
+        package sample;
+
+        import com.github.forax.framework.mapper.JSONCodec;
+        import com.github.forax.framework.mapper.JSONProperty;
+        import java.util.List;
+
+        @JSONCodec
+        public record Trade(long id, @JSONProperty("px") double price, List<String> tags) { }
+        """, "sample.Quote", """
+        package sample;
+
+        import com.github.forax.framework.mapper.JSONProperty;
+
+        public record Quote(String symbol, @JSONProperty("px") double price) { }
+        """));
+    var tradeClass = loader.loadClass("sample.Trade");
+    var trade = tradeClass.getConstructor(long.class, double.class, List.class).newInstance(12L, 4.5, List.of("a", "b"));
+    var quoteClass = loader.loadClass("sample.Quote");
+    var quote = quoteClass.getConstructor(String.class, double.class).newInstance("ACME", 4.5);
+
+    var reader = new JSONReader();
+    reader.addTypeMatcher(listTypeMatcher());
+    reader.addTypeMatcher(type -> Optional.of(type)
+        .flatMap(t -> t instanceof Class<?> clazz && clazz.isRecord()? Optional.of(clazz): Optional.empty())
+        .map(JSONReader.ObjectBuilder::record));
+    assertAll(
+        () -> assertTrue(Files.exists(directory.resolve("src/sample/Trade_JSONCodec.java"))),
+        () -> assertTrue(Files.exists(directory.resolve("src/sample/Quote_JSONCodec.java"))),
+        () -> assertEquals(trade, reader.parseJSON("""
+            {"id": 12, "px": 4.5, "tags": ["a", "b"]}
+            """, tradeClass)),
+        () -> assertEquals("""
+            {"symbol": "ACME", "px": 4.5}\
+            """, new JSONWriter().toJSON(quote))
+    );
+  }
+
+  @Test
+  public void beanCodec(@TempDir Path directory) throws Exception {
+    var loader = compile(directory, Map.of("sample.Account", """
+        package sample;
+
+        import com.github.forax.framework.mapper.JSONProperty;
+
+        public class Account {
+          private String name;
+          private boolean active;
+
+          @JSONProperty("account-name")
+          public String getName() {
+            return name;
+          }
+          public void setName(String name) {
+            this.name = name;
+          }
+          public boolean isActive() {
+            return active;
+          }
+          public void setActive(boolean active) {
+            this.active = active;
+          }
+        }
+        """));
+    var accountClass = loader.loadClass("sample.Account");
+    var reader = new JSONReader();
+    var account = reader.parseJSON("""
+        {"account-name": "Bob", "active": true}
+        """, accountClass);
+    var json = new JSONWriter().toJSON(account);
+    assertAll(
+        () -> assertTrue(Files.exists(directory.resolve("src/sample/Account_JSONCodec.java"))),
+        () -> assertEquals("""
+            {"active": true, "account-name": "Bob"}\
+            """, json)
+    );
+  }
+
+  @Test
+  public void genericRecordIsLeftToReflection(@TempDir Path directory) throws Exception {
+    compile(directory, Map.of("sample.Page", """
+        package sample;
+
+        import com.github.forax.framework.mapper.JSONCodec;
+        import java.util.List;
+
+        @JSONCodec
+        public record Page<T>(List<T> items) { }
+        """));
+    assertFalse(Files.exists(directory.resolve("src/sample/Page_JSONCodec.java")));
+  }
+}
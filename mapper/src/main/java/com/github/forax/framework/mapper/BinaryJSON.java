@@ -0,0 +1,339 @@
+package com.github.forax.framework.mapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A compact binary encoding equivalent to JSON.
+ *
+ * Each value starts with a tag, integers are encoded as zigzag varints, doubles on 8 bytes and
+ * strings as a varint length followed by the UTF-8 bytes. The first occurrence of a key is
+ * stored inline and registered in a table, the following occurrences are encoded as
+ * an index in that table.
+ *
+ * @see #parse(byte[], ToyJSONParser.JSONVisitor)
+ */
+final class BinaryJSON {
+  private BinaryJSON() {
+    throw new AssertionError();
+  }
+
+  private static final int VERSION = 1;
+  private static final int MAX_KEYS = 1 << 12;
+
+  private static final int NULL = 0;
+  private static final int FALSE = 1;
+  private static final int TRUE = 2;
+  private static final int INTEGER = 3;
+  private static final int DOUBLE = 4;
+  private static final int STRING = 5;
+  private static final int START_OBJECT = 6;
+  private static final int END_OBJECT = 7;
+  private static final int START_ARRAY = 8;
+  private static final int END_ARRAY = 9;
+  private static final int KEY = 10;
+  private static final int KEY_REF = 11;
+  private static final int KEY_INLINE = 12;
+  private static final int RAW_JSON = 13;
+
+  static final class Encoder {
+    private byte[] buffer = new byte[64];
+    private int size;
+    private final HashMap<String, Integer> keyMap = new HashMap<>();
+
+    Encoder() {
+      writeByte(VERSION);
+    }
+
+    private void writeByte(int value) {
+      if (size == buffer.length) {
+        buffer = Arrays.copyOf(buffer, size << 1);
+      }
+      buffer[size++] = (byte) value;
+    }
+
+    private void writeBytes(byte[] bytes) {
+      if (size + bytes.length > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(size << 1, size + bytes.length));
+      }
+      System.arraycopy(bytes, 0, buffer, size, bytes.length);
+      size += bytes.length;
+    }
+
+    private void writeVarint(long value) {
+      while ((value & ~0x7FL) != 0) {
+        writeByte((int) (value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      writeByte((int) value);
+    }
+
+    private void writeText(String text) {
+      var bytes = text.getBytes(UTF_8);
+      writeVarint(bytes.length);
+      writeBytes(bytes);
+    }
+
+    void writeNull() {
+      writeByte(NULL);
+    }
+
+    void writeBoolean(boolean value) {
+      writeByte(value ? TRUE : FALSE);
+    }
+
+    void writeLong(long value) {
+      writeByte(INTEGER);
+      writeVarint((value << 1) ^ (value >> 63));
+    }
+
+    void writeDouble(double value) {
+      writeByte(DOUBLE);
+      var bits = Double.doubleToRawLongBits(value);
+      for (var shift = 56; shift >= 0; shift -= 8) {
+        writeByte((int) (bits >>> shift));
+      }
+    }
+
+    void writeString(String value) {
+      writeByte(STRING);
+      writeText(value);
+    }
+
+    void writeRawJSON(String json) {
+      writeByte(RAW_JSON);
+      writeText(json);
+    }
+
+    void writeKey(String key) {
+      var index = keyMap.get(key);
+      if (index != null) {
+        writeByte(KEY_REF);
+        writeVarint(index);
+        return;
+      }
+      if (keyMap.size() == MAX_KEYS) {
+        writeByte(KEY_INLINE);
+        writeText(key);
+        return;
+      }
+      keyMap.put(key, keyMap.size());
+      writeByte(KEY);
+      writeText(key);
+    }
+
+    void startObject() {
+      writeByte(START_OBJECT);
+    }
+
+    void endObject() {
+      writeByte(END_OBJECT);
+    }
+
+    void startArray() {
+      writeByte(START_ARRAY);
+    }
+
+    void endArray() {
+      writeByte(END_ARRAY);
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(buffer, size);
+    }
+  }
+
+  private static final class Decoder {
+    private final byte[] data;
+    private int index;
+    private final ArrayList<String> keys = new ArrayList<>();
+    private final StringCache stringCache;
+
+    private Decoder(byte[] data, StringCache stringCache) {
+      this.data = data;
+      this.stringCache = stringCache;
+    }
+
+    private int readByte() {
+      if (index == data.length) {
+        throw new IllegalStateException("unexpected end of data at " + index);
+      }
+      return data[index++] & 0xFF;
+    }
+
+    private long readVarint() {
+      var value = 0L;
+      for (var shift = 0; shift < 64; shift += 7) {
+        var b = readByte();
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IllegalStateException("invalid varint at " + index);
+    }
+
+    private String readText() {
+      var length = readLength();
+      var text = new String(data, index, length, UTF_8);
+      index += length;
+      return text;
+    }
+
+    // the keys and the strings are looked up in the cache, not the raw JSON
+    private String readString() {
+      if (stringCache == null) {
+        return readText();
+      }
+      var length = readLength();
+      var text = stringCache.intern(data, index, length);
+      index += length;
+      return text;
+    }
+
+    private int readLength() {
+      var length = (int) readVarint();
+      if (length < 0 || length > data.length - index) {
+        throw new IllegalStateException("invalid length " + length + " at " + index);
+      }
+      return length;
+    }
+
+    private void skipBytes(int length) {
+      if (length > data.length - index) {
+        throw new IllegalStateException("unexpected end of data at " + data.length);
+      }
+      index += length;
+    }
+
+    private long readLong() {
+      var value = readVarint();
+      return (value >>> 1) ^ -(value & 1);
+    }
+
+    private double readDouble() {
+      var bits = 0L;
+      for (var i = 0; i < 8; i++) {
+        bits = (bits << 8) | readByte();
+      }
+      return Double.longBitsToDouble(bits);
+    }
+
+    private String readKey(int tag) {
+      return switch (tag) {
+        case KEY -> {
+          var key = readString();
+          keys.add(key);
+          yield key;
+        }
+        case KEY_REF -> {
+          var keyIndex = (int) readVarint();
+          if (keyIndex < 0 || keyIndex >= keys.size()) {
+            throw new IllegalStateException("invalid key reference " + keyIndex + " at " + index);
+          }
+          yield keys.get(keyIndex);
+        }
+        case KEY_INLINE -> readString();
+        default -> throw new IllegalStateException("expect a key but found tag " + tag + " at " + (index - 1));
+      };
+    }
+
+    private void parseValue(String currentKey, int tag, ToyJSONParser.JSONVisitor visitor) {
+      switch (tag) {
+        case NULL -> visitor.value(currentKey, null);
+        case FALSE -> visitor.value(currentKey, false);
+        case TRUE -> visitor.value(currentKey, true);
+        case INTEGER -> {
+          var value = readLong();
+          visitor.value(currentKey, value == (int) value ? (Object) (int) value : (Object) value);
+        }
+        case DOUBLE -> visitor.value(currentKey, readDouble());
+        case STRING -> visitor.value(currentKey, readString());
+        case RAW_JSON -> ToyJSONParser.parseValue(readText(), currentKey, visitor);
+        case START_OBJECT -> {
+          visitor.startObject(currentKey);
+          int next;
+          while ((next = readByte()) != END_OBJECT) {
+            var key = readKey(next);
+            var valueTag = readByte();
+            if (visitor.acceptKey(key)) {
+              parseValue(key, valueTag, visitor);
+            } else {
+              skipValue(valueTag);
+            }
+          }
+          visitor.endObject(currentKey);
+        }
+        case START_ARRAY -> {
+          visitor.startArray(currentKey);
+          int next;
+          while ((next = readByte()) != END_ARRAY) {
+            parseValue(null, next, visitor);
+          }
+          visitor.endArray(currentKey);
+        }
+        default -> throw new IllegalStateException("expect a value but found tag " + tag + " at " + (index - 1));
+      }
+    }
+
+    private void skipValue(int tag) {
+      switch (tag) {
+        case NULL, FALSE, TRUE -> {}
+        case INTEGER -> readVarint();
+        case DOUBLE -> skipBytes(8);
+        case STRING, RAW_JSON -> skipBytes(readLength());
+        case START_OBJECT -> {
+          int next;
+          while ((next = readByte()) != END_OBJECT) {
+            readKey(next);  // the keys must be registered even if skipped
+            skipValue(readByte());
+          }
+        }
+        case START_ARRAY -> {
+          int next;
+          while ((next = readByte()) != END_ARRAY) {
+            skipValue(next);
+          }
+        }
+        default -> throw new IllegalStateException("expect a value but found tag " + tag + " at " + (index - 1));
+      }
+    }
+  }
+
+  /**
+   * Parse a binary encoded JSON value and calls the visitor methods
+   * like {@link ToyJSONParser#parse(String, ToyJSONParser.JSONVisitor)} does.
+   *
+   * @param data the binary encoded value.
+   * @param visitor the visitor to call when decoding the value.
+   */
+  static void parse(byte[] data, ToyJSONParser.JSONVisitor visitor) {
+    parse(data, visitor, null);
+  }
+
+  /**
+   * Parse a binary encoded JSON value, the keys and the strings are looked up in the string cache.
+   *
+   * @param data the binary encoded value.
+   * @param visitor the visitor to call when decoding the value.
+   * @param stringCache the string cache or {@code null}.
+   */
+  static void parse(byte[] data, ToyJSONParser.JSONVisitor visitor, StringCache stringCache) {
+    var decoder = new Decoder(data, stringCache);
+    var version = decoder.readByte();
+    if (version != VERSION) {
+      throw new IllegalStateException("unknown binary version " + version);
+    }
+    var tag = decoder.readByte();
+    if (tag != START_OBJECT && tag != START_ARRAY) {
+      throw new IllegalStateException("expect an object or an array but found tag " + tag);
+    }
+    decoder.parseValue(null, tag, visitor);
+    if (decoder.index != data.length) {
+      throw new IllegalStateException("trailing data at " + decoder.index);
+    }
+  }
+}
@@ -0,0 +1,188 @@
+package com.github.forax.framework.mapper;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.MonthDay;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.Period;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * The codecs of the enums, the {@code java.time} types, {@link UUID}, {@link BigDecimal}
+ * and {@link BigInteger} that do not need to be configured.
+ *
+ * The enums are encoded as their name, the other types as their {@code toString()} in a JSON string,
+ * even {@link BigDecimal} and {@link BigInteger} so their precision and their scale are kept,
+ * a JSON number being decoded as a {@code double} or a {@code long}.
+ */
+final class BuiltInCodecs {
+  private BuiltInCodecs() {
+    throw new AssertionError();
+  }
+
+  interface Appender {
+    void append(Object value, StringBuilder builder);
+  }
+
+  private static final Map<Class<?>, Function<String, ?>> TEXT_PARSER_MAP = Map.ofEntries(
+      Map.entry(Duration.class, Duration::parse),
+      Map.entry(Instant.class, Instant::parse),
+      Map.entry(LocalDate.class, LocalDate::parse),
+      Map.entry(LocalDateTime.class, LocalDateTime::parse),
+      Map.entry(LocalTime.class, LocalTime::parse),
+      Map.entry(MonthDay.class, MonthDay::parse),
+      Map.entry(OffsetDateTime.class, OffsetDateTime::parse),
+      Map.entry(OffsetTime.class, OffsetTime::parse),
+      Map.entry(Period.class, Period::parse),
+      Map.entry(Year.class, Year::parse),
+      Map.entry(YearMonth.class, YearMonth::parse),
+      Map.entry(ZoneId.class, ZoneId::of),
+      Map.entry(ZoneOffset.class, ZoneOffset::of),
+      Map.entry(ZonedDateTime.class, ZonedDateTime::parse),
+      Map.entry(UUID.class, UUID::fromString)
+  );
+
+  private static Class<?> enumClass(Class<?> type) {
+    if (type.isEnum()) {
+      return type;
+    }
+    // the constants with a body are subclasses of the enum
+    var superclass = type.getSuperclass();
+    return superclass != null && superclass.isEnum() ? superclass : null;
+  }
+
+  private static boolean isText(Class<?> type) {
+    // ZoneId is implemented by a non-public subclass
+    return TEXT_PARSER_MAP.containsKey(type) || ZoneId.class.isAssignableFrom(type);
+  }
+
+  private static final ClassValue<Appender> APPENDER_CLASS_VALUE = new ClassValue<>() {
+    @Override
+    protected Appender computeValue(Class<?> type) {
+      var enumClass = enumClass(type);
+      if (enumClass != null) {
+        var quotedNames = Arrays.stream(enumClass.getEnumConstants())
+            .map(constant -> "\"" + ((Enum<?>) constant).name() + "\"")
+            .toArray(String[]::new);
+        return (value, builder) -> builder.append(quotedNames[((Enum<?>) value).ordinal()]);
+      }
+      if (type == LocalDate.class) {
+        return (value, builder) -> appendLocalDate((LocalDate) value, builder);
+      }
+      if (isText(type) || type == BigDecimal.class || type == BigInteger.class) {
+        return (value, builder) -> builder.append('"').append(value).append('"');
+      }
+      return null;
+    }
+  };
+
+  private static void appendLocalDate(LocalDate date, StringBuilder builder) {
+    var year = date.getYear();
+    if (year < 0 || year > 9_999) {  // those years use a sign
+      builder.append('"').append(date).append('"');
+      return;
+    }
+    builder.append('"');
+    appendDigits(year, 4, builder);
+    builder.append('-');
+    appendDigits(date.getMonthValue(), 2, builder);
+    builder.append('-');
+    appendDigits(date.getDayOfMonth(), 2, builder);
+    builder.append('"');
+  }
+
+  private static void appendDigits(int value, int digits, StringBuilder builder) {
+    for (var divisor = digits == 4 ? 1_000 : 10; divisor != 0; divisor /= 10) {
+      builder.append((char) ('0' + value / divisor % 10));
+    }
+  }
+
+  /**
+   * Returns the appender of a type or null if the type has no built-in codec.
+   * @param type the class of a value.
+   * @return the appender of a type or null.
+   */
+  static Appender appender(Class<?> type) {
+    return APPENDER_CLASS_VALUE.get(type);
+  }
+
+  /**
+   * Returns the text of a value that has a built-in codec, the value of a JSON string.
+   * @param value a value that has a built-in codec.
+   * @return the text of a value.
+   */
+  static String text(Object value) {
+    return value instanceof Enum<?> constant ? constant.name() : value.toString();
+  }
+
+  private static final ClassValue<Function<Object, Object>> CONVERTER_CLASS_VALUE = new ClassValue<>() {
+    @Override
+    protected Function<Object, Object> computeValue(Class<?> type) {
+      if (type.isEnum()) {
+        var constantMap = Arrays.stream(type.getEnumConstants())
+            .collect(toMap(constant -> ((Enum<?>) constant).name(), constant -> constant));
+        return value -> {
+          var constant = value instanceof String name ? constantMap.get(name) : null;
+          if (constant == null) {
+            throw new IllegalStateException("unknown constant " + value + " for enum " + type.getName());
+          }
+          return constant;
+        };
+      }
+      // the JSON numbers are still accepted, a double may not be exact
+      if (type == BigDecimal.class) {
+        return value -> switch (value) {
+          case Integer i -> BigDecimal.valueOf(i);
+          case Long l -> BigDecimal.valueOf(l);
+          case Double d -> BigDecimal.valueOf(d);
+          case String s -> new BigDecimal(s);
+          default -> throw new IllegalStateException("can not convert " + value + " to " + type.getName());
+        };
+      }
+      if (type == BigInteger.class) {
+        return value -> switch (value) {
+          case Integer i -> BigInteger.valueOf(i);
+          case Long l -> BigInteger.valueOf(l);
+          case String s -> new BigInteger(s);
+          default -> throw new IllegalStateException("can not convert " + value + " to " + type.getName());
+        };
+      }
+      var parser = TEXT_PARSER_MAP.get(type);
+      if (parser != null) {
+        return value -> {
+          if (!(value instanceof String text)) {
+            throw new IllegalStateException("can not convert " + value + " to " + type.getName());
+          }
+          return parser.apply(text);
+        };
+      }
+      return null;
+    }
+  };
+
+  /**
+   * Returns a function that converts a decoded JSON value, a string or a number,
+   * to the expected type, or null if the type has no built-in codec.
+   * @param type the expected type.
+   * @return a function that converts a decoded JSON value or null.
+   */
+  static Function<Object, Object> converter(Class<?> type) {
+    return CONVERTER_CLASS_VALUE.get(type);
+  }
+}
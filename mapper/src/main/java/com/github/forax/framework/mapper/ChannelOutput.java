@@ -0,0 +1,213 @@
+package com.github.forax.framework.mapper;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Encodes characters in UTF-8 into fixed size direct buffers that are written
+ * to a channel when they are full.
+ *
+ * The buffers are either written by the thread that encodes, see {@link #of(WritableByteChannel)},
+ * or by a virtual thread, see {@link #async(WritableByteChannel)}.
+ */
+final class ChannelOutput {
+  static final int BUFFER_SIZE = 1 << 16;
+  static final int BUFFER_COUNT = 4;
+
+  private interface Flusher {
+    /**
+     * Sends a full buffer and returns an empty buffer.
+     */
+    ByteBuffer flush(ByteBuffer buffer) throws IOException;
+
+    /**
+     * Sends the last buffer and waits until everything is written.
+     */
+    void close(ByteBuffer buffer) throws IOException;
+
+    /**
+     * Stops the writing, the remaining buffers are not written.
+     */
+    void abort();
+  }
+
+  private final CharsetEncoder encoder = UTF_8.newEncoder()
+      .onMalformedInput(CodingErrorAction.REPLACE)
+      .onUnmappableCharacter(CodingErrorAction.REPLACE);
+  private final Flusher flusher;
+  private ByteBuffer buffer;
+
+  private ChannelOutput(ByteBuffer buffer, Flusher flusher) {
+    this.buffer = buffer;
+    this.flusher = flusher;
+  }
+
+  private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * Returns an output that writes into the channel when a buffer is full.
+   */
+  static ChannelOutput of(WritableByteChannel channel) {
+    return new ChannelOutput(ByteBuffer.allocateDirect(BUFFER_SIZE), new Flusher() {
+      @Override
+      public ByteBuffer flush(ByteBuffer buffer) throws IOException {
+        writeFully(channel, buffer);
+        return buffer;
+      }
+
+      @Override
+      public void close(ByteBuffer buffer) throws IOException {
+        writeFully(channel, buffer);
+      }
+
+      @Override
+      public void abort() {
+        // nothing to do
+      }
+    });
+  }
+
+  /**
+   * Returns an output that sends the full buffers to a virtual thread that writes them into the channel.
+   * There are at most {@link #BUFFER_COUNT} buffers, if all of them are waiting to be written,
+   * the encoding thread waits, so the memory used does not depend on the speed of the channel.
+   */
+  static ChannelOutput async(WritableByteChannel channel) {
+    var flusher = new AsyncFlusher(channel);
+    return new ChannelOutput(flusher.freeBuffers.remove(), flusher);
+  }
+
+  private static final class AsyncFlusher implements Flusher {
+    // marks the end of the buffers to write
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final BlockingQueue<ByteBuffer> freeBuffers = new ArrayBlockingQueue<>(BUFFER_COUNT);
+    private final BlockingQueue<ByteBuffer> fullBuffers = new ArrayBlockingQueue<>(BUFFER_COUNT + 1);
+    private final Thread writerThread;
+    private volatile Exception failure;
+
+    private AsyncFlusher(WritableByteChannel channel) {
+      for (var i = 0; i < BUFFER_COUNT; i++) {
+        freeBuffers.add(ByteBuffer.allocateDirect(BUFFER_SIZE));
+      }
+      writerThread = Thread.ofVirtual().name("json-channel-writer").start(() -> {
+        try {
+          ByteBuffer buffer;
+          while ((buffer = fullBuffers.take()) != END) {
+            if (failure == null) {
+              try {
+                writeFully(channel, buffer);
+              } catch (IOException | RuntimeException e) {
+                // the buffers are still recycled, so the encoding thread never waits forever
+                failure = e;
+              }
+            }
+            buffer.clear();
+            freeBuffers.add(buffer);
+          }
+        } catch (InterruptedException e) {
+          failure = e;
+        }
+      });
+    }
+
+    private void checkFailure() throws IOException {
+      var failure = this.failure;
+      if (failure != null) {
+        throw new IOException("error while writing the channel", failure);
+      }
+    }
+
+    @Override
+    public ByteBuffer flush(ByteBuffer buffer) throws IOException {
+      checkFailure();
+      try {
+        fullBuffers.put(buffer);
+        return freeBuffers.take();
+      } catch (InterruptedException e) {
+        throw interrupted(e);
+      }
+    }
+
+    @Override
+    public void close(ByteBuffer buffer) throws IOException {
+      checkFailure();
+      try {
+        fullBuffers.put(buffer);
+        fullBuffers.put(END);
+        writerThread.join();
+      } catch (InterruptedException e) {
+        throw interrupted(e);
+      }
+      checkFailure();
+    }
+
+    @Override
+    public void abort() {
+      // the queue always has a free slot for END
+      fullBuffers.add(END);
+    }
+
+    private static InterruptedIOException interrupted(InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return (InterruptedIOException) new InterruptedIOException().initCause(e);
+    }
+  }
+
+  private void flushIfOverflow(CoderResult result) throws IOException {
+    if (result.isOverflow()) {
+      buffer = flusher.flush(buffer);
+      return;
+    }
+    result.throwException();
+  }
+
+  /**
+   * Encodes the characters, the text should not end in the middle of a surrogate pair.
+   */
+  void write(CharSequence text) throws IOException {
+    var chars = CharBuffer.wrap(text);
+    CoderResult result;
+    while (!(result = encoder.encode(chars, buffer, false)).isUnderflow()) {
+      flushIfOverflow(result);
+    }
+  }
+
+  /**
+   * Writes the remaining bytes and waits until everything is written.
+   */
+  void close() throws IOException {
+    var empty = CharBuffer.allocate(0);
+    CoderResult result;
+    while (!(result = encoder.encode(empty, buffer, true)).isUnderflow()) {
+      flushIfOverflow(result);
+    }
+    while (!(result = encoder.flush(buffer)).isUnderflow()) {
+      flushIfOverflow(result);
+    }
+    flusher.close(buffer);
+  }
+
+  /**
+   * Stops the writing, if there was an error during the encoding.
+   */
+  void abort() {
+    flusher.abort();
+  }
+}
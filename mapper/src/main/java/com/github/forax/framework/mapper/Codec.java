@@ -0,0 +1,47 @@
+package com.github.forax.framework.mapper;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * A codec generated at compile time for a record or a bean,
+ * used by {@link JSONWriter} and {@link JSONReader} instead of the reflection.
+ *
+ * The codec of a class {@code pkg.Foo} (or {@code pkg.Outer$Foo} for a nested class) is a class
+ * named {@code pkg.Foo_JSONCodec} (or {@code pkg.Outer$Foo_JSONCodec}) with a public default constructor.
+ *
+ * @param <T> the type of the record or the bean.
+ *
+ * @see JSONCodec
+ */
+public interface Codec<T> {
+  /**
+   * Returns the keys of the properties in the order used to write them.
+   * @return the keys of the properties.
+   */
+  List<String> keys();
+
+  /**
+   * Returns the value of a property.
+   * @param instance the record or the bean.
+   * @param index the index of the property in {@link #keys()}.
+   * @return the value of a property.
+   */
+  Object value(T instance, int index);
+
+  /**
+   * Returns the object builder used to decode the record or the bean, it should be
+   * a {@code ObjectBuilder<Object[]>} for a record and a {@code ObjectBuilder<Object>} for a bean.
+   * @return the object builder used to decode the record or the bean.
+   */
+  JSONReader.ObjectBuilder<?> objectBuilder();
+
+  /**
+   * Returns the type captured by a type reference.
+   * @param typeReference an anonymous class implementing {@link JSONReader.TypeReference}.
+   * @return the type argument of the type reference.
+   */
+  static Type type(JSONReader.TypeReference<?> typeReference) {
+    return JSONReader.findDecodedType(typeReference);
+  }
+}
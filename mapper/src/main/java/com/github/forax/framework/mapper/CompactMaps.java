@@ -0,0 +1,266 @@
+package com.github.forax.framework.mapper;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Unmodifiable maps with string keys used to decode the JSON objects, see {@link JSONReader.ObjectBuilder#map(java.lang.reflect.Type)}.
+ *
+ * The keys and the values are stored in insertion order in arrays, the values of type int or long
+ * are not boxed, and an open addressing table of ints stores the index of the keys.
+ * So there is no object per entry, unlike {@link java.util.HashMap}.
+ * If a key is present several times, the last value wins.
+ */
+final class CompactMaps {
+  private CompactMaps() {
+    throw new AssertionError();
+  }
+
+  abstract static sealed class CompactMap<V> extends AbstractMap<String, V> {
+    private String[] keys;
+    private int[] table;  // index + 1 of the key, 0 means empty
+    private int size;
+
+    private CompactMap(int expectedSize) {
+      if (expectedSize < 0) {
+        throw new IllegalArgumentException("invalid expected size " + expectedSize);
+      }
+      var capacity = Math.max(2, expectedSize);
+      keys = new String[capacity];
+      table = new int[tableLength(capacity)];
+    }
+
+    // a power of two at least twice the capacity
+    private static int tableLength(int capacity) {
+      return Integer.highestOneBit(capacity * 2 - 1) << 1;
+    }
+
+    private static int hash(Object key) {
+      var hash = key.hashCode();
+      return hash ^ (hash >>> 16);
+    }
+
+    final int index(Object key) {
+      if (!(key instanceof String)) {
+        return -1;
+      }
+      var mask = table.length - 1;
+      for (var slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+        var entry = table[slot];
+        if (entry == 0) {
+          return -1;
+        }
+        if (keys[entry - 1].equals(key)) {
+          return entry - 1;
+        }
+      }
+    }
+
+    /**
+     * Returns the index of the value of the key, the key is added if necessary.
+     */
+    final int insert(String key) {
+      var mask = table.length - 1;
+      var slot = hash(key) & mask;
+      for (; ; slot = (slot + 1) & mask) {
+        var entry = table[slot];
+        if (entry == 0) {
+          break;
+        }
+        if (keys[entry - 1].equals(key)) {
+          return entry - 1;
+        }
+      }
+      if (size == keys.length) {
+        var capacity = size << 1;
+        keys = Arrays.copyOf(keys, capacity);
+        growValues(capacity);
+        rehash(tableLength(capacity));
+        return insert(key);
+      }
+      table[slot] = size + 1;
+      keys[size] = key;
+      return size++;
+    }
+
+    private void rehash(int tableLength) {
+      table = new int[tableLength];
+      var mask = tableLength - 1;
+      for (var i = 0; i < size; i++) {
+        var slot = hash(keys[i]) & mask;
+        while (table[slot] != 0) {
+          slot = (slot + 1) & mask;
+        }
+        table[slot] = i + 1;
+      }
+    }
+
+    abstract void growValues(int capacity);
+
+    abstract V valueAt(int index);
+
+    @Override
+    public final int size() {
+      return size;
+    }
+
+    @Override
+    public final boolean containsKey(Object key) {
+      return index(key) != -1;
+    }
+
+    @Override
+    public final V get(Object key) {
+      var index = index(key);
+      return index == -1 ? null : valueAt(index);
+    }
+
+    @Override
+    public final void forEach(BiConsumer<? super String, ? super V> action) {
+      for (var i = 0; i < size; i++) {
+        action.accept(keys[i], valueAt(i));
+      }
+    }
+
+    @Override
+    public final Set<Entry<String, V>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public int size() {
+          return size;
+        }
+
+        @Override
+        public Iterator<Entry<String, V>> iterator() {
+          return new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+              return index < size;
+            }
+
+            @Override
+            public Entry<String, V> next() {
+              if (!hasNext()) {
+                throw new NoSuchElementException();
+              }
+              var entry = new SimpleImmutableEntry<>(keys[index], valueAt(index));
+              index++;
+              return entry;
+            }
+          };
+        }
+      };
+    }
+  }
+
+  static final class IntValueMap extends CompactMap<Integer> {
+    private int[] values;
+
+    IntValueMap(int expectedSize) {
+      super(expectedSize);
+      values = new int[Math.max(2, expectedSize)];
+    }
+
+    void populate(String key, Object value) {
+      if (!(value instanceof Integer i)) {
+        throw new IllegalStateException("expect an int for key " + key + " but found " + value);
+      }
+      var index = insert(key);  // may grow the values
+      values[index] = i;
+    }
+
+    @Override
+    void growValues(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    Integer valueAt(int index) {
+      return values[index];
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+      if (!(value instanceof Integer i)) {
+        return false;
+      }
+      for (var index = 0; index < size(); index++) {
+        if (values[index] == i) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  static final class LongValueMap extends CompactMap<Long> {
+    private long[] values;
+
+    LongValueMap(int expectedSize) {
+      super(expectedSize);
+      values = new long[Math.max(2, expectedSize)];
+    }
+
+    void populate(String key, Object value) {
+      if (!(value instanceof Integer || value instanceof Long)) {
+        throw new IllegalStateException("expect a long for key " + key + " but found " + value);
+      }
+      var index = insert(key);  // may grow the values
+      values[index] = ((Number) value).longValue();
+    }
+
+    @Override
+    void growValues(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    Long valueAt(int index) {
+      return values[index];
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+      if (!(value instanceof Long l)) {
+        return false;
+      }
+      for (var index = 0; index < size(); index++) {
+        if (values[index] == l) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  static final class ObjectValueMap extends CompactMap<Object> {
+    private Object[] values;
+
+    ObjectValueMap(int expectedSize) {
+      super(expectedSize);
+      values = new Object[Math.max(2, expectedSize)];
+    }
+
+    void populate(String key, Object value) {
+      var index = insert(key);  // may grow the values
+      values[index] = value;
+    }
+
+    @Override
+    void growValues(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    Object valueAt(int index) {
+      return values[index];
+    }
+  }
+}
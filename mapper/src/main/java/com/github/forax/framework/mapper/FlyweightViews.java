@@ -0,0 +1,298 @@
+package com.github.forax.framework.mapper;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Decodes a JSON array of objects into a memory segment outside the heap,
+ * each object is stored in a slot of fixed size described by the accessors of an interface,
+ * the elements of the list are proxies of the interface that read the slot when an accessor is called.
+ *
+ * The accessors can return a primitive type (apart char) or a String. The strings are stored
+ * in UTF-8 in a second segment and decoded at each call.
+ * The keys of the JSON objects that do not correspond to an accessor are skipped.
+ *
+ * @see JSONReader#parseFlyweightJSON(String, Class)
+ */
+final class FlyweightViews {
+  private FlyweightViews() {
+    throw new AssertionError();
+  }
+
+  /**
+   * A field of a slot, a string is stored as two ints, its offset and its length in the string segment,
+   * a null string has a length of -1.
+   */
+  private record Field(String key, Class<?> type, ValueLayout layout, long offset) {
+    private void write(MemorySegment slots, long base, Object value, StringArea strings) {
+      var position = base + offset;
+      if (type == String.class) {
+        if (value != null && !(value instanceof String)) {
+          throw new IllegalStateException("expect a string for " + key + " but found " + value);
+        }
+        var string = (String) value;
+        slots.set(ValueLayout.JAVA_INT, position, string == null ? 0 : strings.add(string));
+        slots.set(ValueLayout.JAVA_INT, position + 4, string == null ? -1 : strings.lastLength);
+        return;
+      }
+      if (type == boolean.class) {
+        if (!(value instanceof Boolean b)) {
+          throw new IllegalStateException("expect a boolean for " + key + " but found " + value);
+        }
+        slots.set(ValueLayout.JAVA_BOOLEAN, position, b);
+        return;
+      }
+      if (!(value instanceof Number number)) {
+        throw new IllegalStateException("expect a number for " + key + " but found " + value);
+      }
+      switch (layout) {
+        case ValueLayout.OfByte l -> slots.set(l, position, number.byteValue());
+        case ValueLayout.OfShort l -> slots.set(l, position, number.shortValue());
+        case ValueLayout.OfInt l -> slots.set(l, position, number.intValue());
+        case ValueLayout.OfLong l -> slots.set(l, position, number.longValue());
+        case ValueLayout.OfFloat l -> slots.set(l, position, number.floatValue());
+        case ValueLayout.OfDouble l -> slots.set(l, position, number.doubleValue());
+        default -> throw new AssertionError();
+      }
+    }
+
+    private Object read(MemorySegment slots, long base, MemorySegment strings) {
+      var position = base + offset;
+      if (type == String.class) {
+        var length = slots.get(ValueLayout.JAVA_INT, position + 4);
+        if (length == -1) {
+          return null;
+        }
+        var stringOffset = slots.get(ValueLayout.JAVA_INT, position);
+        return new String(strings.asSlice(stringOffset, length).toArray(ValueLayout.JAVA_BYTE), UTF_8);
+      }
+      return switch (layout) {
+        case ValueLayout.OfBoolean l -> slots.get(l, position);
+        case ValueLayout.OfByte l -> slots.get(l, position);
+        case ValueLayout.OfShort l -> slots.get(l, position);
+        case ValueLayout.OfInt l -> slots.get(l, position);
+        case ValueLayout.OfLong l -> slots.get(l, position);
+        case ValueLayout.OfFloat l -> slots.get(l, position);
+        case ValueLayout.OfDouble l -> slots.get(l, position);
+        default -> throw new AssertionError();
+      };
+    }
+  }
+
+  private record ViewLayout(long slotSize, long slotAlignment, List<Field> fields,
+                            Map<String, Field> fieldMap, Map<Method, Field> accessorMap) { }
+
+  private static ValueLayout layout(Method accessor) {
+    var type = accessor.getReturnType();
+    if (type == String.class) {
+      return ValueLayout.JAVA_LONG.withByteAlignment(4);  // two ints
+    }
+    return switch (type.getName()) {
+      case "boolean" -> ValueLayout.JAVA_BOOLEAN;
+      case "byte" -> ValueLayout.JAVA_BYTE;
+      case "short" -> ValueLayout.JAVA_SHORT;
+      case "int" -> ValueLayout.JAVA_INT;
+      case "long" -> ValueLayout.JAVA_LONG;
+      case "float" -> ValueLayout.JAVA_FLOAT;
+      case "double" -> ValueLayout.JAVA_DOUBLE;
+      default -> throw new IllegalArgumentException("unsupported return type " + type.getName() + " of " + accessor);
+    };
+  }
+
+  private static String key(Method accessor) {
+    var annotation = accessor.getAnnotation(JSONProperty.class);
+    return annotation != null ? annotation.value() : accessor.getName();
+  }
+
+  private static final ClassValue<ViewLayout> VIEW_LAYOUT_CLASS_VALUE = new ClassValue<>() {
+    @Override
+    protected ViewLayout computeValue(Class<?> type) {
+      if (!type.isInterface()) {
+        throw new IllegalArgumentException(type.getName() + " is not an interface");
+      }
+      var accessors = Arrays.stream(type.getMethods())
+          .filter(method -> !method.isDefault() && !Modifier.isStatic(method.getModifiers()))
+          .toList();
+      for (var accessor : accessors) {
+        if (accessor.getParameterCount() != 0) {
+          throw new IllegalArgumentException("an accessor has no parameter " + accessor);
+        }
+      }
+      // the fields with the largest alignment first, so the fields are aligned without padding
+      var sortedAccessors = accessors.stream()
+          .sorted(Comparator.<Method>comparingLong(accessor -> layout(accessor).byteAlignment()).reversed()
+              .thenComparing(FlyweightViews::key))
+          .toList();
+      var fields = new ArrayList<Field>();
+      var fieldMap = new HashMap<String, Field>();
+      var accessorMap = new HashMap<Method, Field>();
+      var offset = 0L;
+      var slotAlignment = 1L;
+      for (var accessor : sortedAccessors) {
+        var layout = layout(accessor);
+        var field = new Field(key(accessor), accessor.getReturnType(), layout, offset);
+        if (fieldMap.put(field.key, field) != null) {
+          throw new IllegalArgumentException("several accessors for the key " + field.key + " in " + type.getName());
+        }
+        fields.add(field);
+        accessorMap.put(accessor, field);
+        offset += layout.byteSize();
+        slotAlignment = Math.max(slotAlignment, layout.byteAlignment());
+      }
+      var slotSize = Math.max(1, (offset + slotAlignment - 1) / slotAlignment * slotAlignment);
+      return new ViewLayout(slotSize, slotAlignment, List.copyOf(fields), Map.copyOf(fieldMap), Map.copyOf(accessorMap));
+    }
+  };
+
+  private static final class StringArea {
+    private byte[] bytes = new byte[256];
+    private int size;
+    private int lastLength;
+
+    private int add(String string) {
+      var data = string.getBytes(UTF_8);
+      if (size + data.length > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length << 1, size + data.length));
+      }
+      System.arraycopy(data, 0, bytes, size, data.length);
+      var offset = size;
+      size += data.length;
+      lastLength = data.length;
+      return offset;
+    }
+  }
+
+  /**
+   * Decodes a JSON array of objects into a list of views.
+   * The text is scanned a first time to know the number of elements, so the segment
+   * of the slots is allocated once.
+   */
+  static <T> List<T> parse(String text, Class<T> viewType) {
+    var viewLayout = VIEW_LAYOUT_CLASS_VALUE.get(viewType);
+    var count = ToyJSONParser.scan(text).elementCount();
+    var arena = Arena.ofAuto();
+    var slots = arena.allocate(viewLayout.slotSize * count, viewLayout.slotAlignment);
+    var strings = new StringArea();
+    ToyJSONParser.parse(text, new ToyJSONParser.JSONVisitor() {
+      private int depth;
+      private long base = -viewLayout.slotSize;
+
+      @Override
+      public boolean acceptKey(String key) {
+        return viewLayout.fieldMap.containsKey(key);
+      }
+
+      @Override
+      public void value(String key, Object value) {
+        if (depth != 2) {
+          throw new IllegalStateException("expect an object but found " + value);
+        }
+        viewLayout.fieldMap.get(key).write(slots, base, value, strings);
+      }
+
+      @Override
+      public void startObject(String key) {
+        if (++depth != 2) {
+          throw new IllegalStateException(depth == 1 ? "expect an array of objects" : "unexpected object for " + key);
+        }
+        base += viewLayout.slotSize;
+        // the missing strings are null
+        for (var field : viewLayout.fields) {
+          if (field.type == String.class) {
+            field.write(slots, base, null, strings);
+          }
+        }
+      }
+
+      @Override
+      public void endObject(String key) {
+        depth--;
+      }
+
+      @Override
+      public void startArray(String key) {
+        if (++depth != 1) {
+          throw new IllegalStateException("unexpected array for " + key);
+        }
+      }
+
+      @Override
+      public void endArray(String key) {
+        depth--;
+      }
+    });
+    var stringSegment = arena.allocate(strings.size);
+    MemorySegment.copy(strings.bytes, 0, stringSegment, ValueLayout.JAVA_BYTE, 0, strings.size);
+    return new Views<>(viewType, viewLayout, slots, stringSegment, count);
+  }
+
+  private static final class Views<T> extends AbstractList<T> implements RandomAccess {
+    private final Class<T> viewType;
+    private final ViewLayout viewLayout;
+    private final MemorySegment slots;
+    private final MemorySegment strings;
+    private final int size;
+
+    private Views(Class<T> viewType, ViewLayout viewLayout, MemorySegment slots, MemorySegment strings, int size) {
+      this.viewType = viewType;
+      this.viewLayout = viewLayout;
+      this.slots = slots;
+      this.strings = strings;
+      this.size = size;
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public T get(int index) {
+      Objects.checkIndex(index, size);
+      return viewType.cast(Proxy.newProxyInstance(viewType.getClassLoader(), new Class<?>[] { viewType }, new Handler(this, index)));
+    }
+  }
+
+  /**
+   * The handler of a view, two views are equal if they are views of the same element.
+   */
+  private record Handler(Views<?> views, int index) implements InvocationHandler {
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      var field = views.viewLayout.accessorMap.get(method);
+      if (field != null) {
+        return field.read(views.slots, index * views.viewLayout.slotSize, views.strings);
+      }
+      if (method.isDefault()) {
+        return InvocationHandler.invokeDefault(proxy, method, args);
+      }
+      return switch (method.getName()) {
+        case "equals" -> args[0] != null && Proxy.isProxyClass(args[0].getClass()) &&
+            Proxy.getInvocationHandler(args[0]) instanceof Handler handler &&
+            handler.views == views && handler.index == index;
+        case "hashCode" -> System.identityHashCode(views) * 31 + index;
+        case "toString" -> views.viewType.getSimpleName() + views.viewLayout.fields.stream()
+            .map(f -> f.key + "=" + f.read(views.slots, index * views.viewLayout.slotSize, views.strings))
+            .collect(Collectors.joining(", ", "[", "]"));
+        default -> throw new AssertionError("unknown method " + method);
+      };
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package com.github.forax.framework.mapper;
+
+final class GeneratedCodecs {
+  private GeneratedCodecs() {
+    throw new AssertionError();
+  }
+
+  private static final ClassValue<Codec<?>> CODEC_CLASS_VALUE = new ClassValue<>() {
+    @Override
+    protected Codec<?> computeValue(Class<?> type) {
+      var classLoader = type.getClassLoader();
+      if (classLoader == null || type.isArray() || type.isInterface()) {
+        return null;
+      }
+      Class<?> codecClass;
+      try {
+        codecClass = Class.forName(type.getName() + "_JSONCodec", true, classLoader);
+      } catch (ClassNotFoundException e) {
+        return null;
+      }
+      if (!Codec.class.isAssignableFrom(codecClass)) {
+        throw new IllegalStateException(codecClass.getName() + " does not implement " + Codec.class.getName());
+      }
+      return (Codec<?>) Utils.newInstance(Utils.defaultConstructor(codecClass));
+    }
+  };
+
+  /**
+   * Returns the codec generated at compile time for a type or null.
+   * @param type a record or a bean class.
+   * @return the codec generated at compile time for a type or null.
+   */
+  @SuppressWarnings("unchecked")
+  static Codec<Object> codec(Class<?> type) {
+    return (Codec<Object>) CODEC_CLASS_VALUE.get(type);
+  }
+}
@@ -0,0 +1,163 @@
+package com.github.forax.framework.mapper;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Substitutes the type variables of the declared type of a property by the type arguments
+ * of the type that owns the property, by example the property {@code List<T> items} of {@code Page<User>}
+ * has the type {@code List<User>}.
+ *
+ * The type variables of the superclasses and the super-interfaces are also substituted,
+ * so a property declared in {@code Page<T>} has a concrete type in {@code class UserPage extends Page<User>}.
+ * A wildcard is replaced by its bound, the type of the decoded values.
+ */
+final class GenericTypes {
+  private GenericTypes() {
+    throw new AssertionError();
+  }
+
+  private static final ClassValue<Map<TypeVariable<?>, Type>> BINDINGS_CLASS_VALUE = new ClassValue<>() {
+    @Override
+    protected Map<TypeVariable<?>, Type> computeValue(Class<?> type) {
+      var bindings = new HashMap<TypeVariable<?>, Type>();
+      bindSupertypes(type, bindings);
+      return Map.copyOf(bindings);
+    }
+  };
+
+  /**
+   * Returns the type arguments of the type variables of a type and of its supertypes,
+   * an empty map if no type variable has a type argument.
+   */
+  static Map<TypeVariable<?>, Type> bindings(Type type) {
+    return switch (type) {
+      case Class<?> clazz -> BINDINGS_CLASS_VALUE.get(clazz);
+      case ParameterizedType parameterizedType -> {
+        var rawClass = (Class<?>) parameterizedType.getRawType();
+        var bindings = new HashMap<>(BINDINGS_CLASS_VALUE.get(rawClass));
+        bind(rawClass, parameterizedType.getActualTypeArguments(), bindings);
+        yield bindings;
+      }
+      default -> Map.of();
+    };
+  }
+
+  private static void bind(Class<?> rawClass, Type[] typeArguments, Map<TypeVariable<?>, Type> bindings) {
+    var typeParameters = rawClass.getTypeParameters();
+    for (var i = 0; i < typeParameters.length; i++) {
+      bindings.put(typeParameters[i], typeArguments[i]);
+    }
+    // the type arguments of the supertypes may use the type variables of the class
+    bindings.replaceAll((variable, argument) -> resolve(argument, bindings));
+  }
+
+  private static void bindSupertypes(Class<?> type, Map<TypeVariable<?>, Type> bindings) {
+    var supertypes = Stream.concat(Stream.ofNullable(type.getGenericSuperclass()), Arrays.stream(type.getGenericInterfaces()));
+    supertypes.forEach(supertype -> {
+      switch (supertype) {
+        case ParameterizedType parameterizedType -> {
+          var rawClass = (Class<?>) parameterizedType.getRawType();
+          bindSupertypes(rawClass, bindings);
+          bind(rawClass, parameterizedType.getActualTypeArguments(), bindings);
+        }
+        case Class<?> clazz -> bindSupertypes(clazz, bindings);
+        default -> throw new AssertionError("unknown supertype " + supertype.getTypeName());
+      }
+    });
+  }
+
+  /**
+   * Substitutes the type variables of a type, the type variables without a binding are kept.
+   */
+  static Type resolve(Type type, Map<TypeVariable<?>, Type> bindings) {
+    return switch (type) {
+      case Class<?> clazz -> clazz;
+      case TypeVariable<?> typeVariable -> bindings.getOrDefault(typeVariable, typeVariable);
+      case ParameterizedType parameterizedType -> {
+        var typeArguments = parameterizedType.getActualTypeArguments();
+        var resolvedArguments = Arrays.stream(typeArguments).map(argument -> resolve(argument, bindings)).toArray(Type[]::new);
+        var owner = parameterizedType.getOwnerType();
+        var resolvedOwner = owner == null ? null : resolve(owner, bindings);
+        if (Arrays.equals(typeArguments, resolvedArguments) && Objects.equals(owner, resolvedOwner)) {
+          yield parameterizedType;
+        }
+        yield new ResolvedParameterizedType(parameterizedType.getRawType(), resolvedOwner, resolvedArguments);
+      }
+      case GenericArrayType genericArrayType -> {
+        var componentType = resolve(genericArrayType.getGenericComponentType(), bindings);
+        yield componentType instanceof Class<?> componentClass ?
+            componentClass.arrayType() :
+            new ResolvedGenericArrayType(componentType);
+      }
+      case WildcardType wildcardType -> {
+        var lowerBounds = wildcardType.getLowerBounds();
+        yield resolve(lowerBounds.length != 0 ? lowerBounds[0] : wildcardType.getUpperBounds()[0], bindings);
+      }
+      default -> throw new AssertionError("unknown type " + type.getTypeName());
+    };
+  }
+
+  // equals() and hashCode() are compatible with the implementation of the JDK
+  private record ResolvedParameterizedType(Type getRawType, Type getOwnerType, Type[] typeArguments) implements ParameterizedType {
+    @Override
+    public Type[] getActualTypeArguments() {
+      return typeArguments.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof ParameterizedType parameterizedType &&
+          getRawType.equals(parameterizedType.getRawType()) &&
+          Objects.equals(getOwnerType, parameterizedType.getOwnerType()) &&
+          Arrays.equals(typeArguments, parameterizedType.getActualTypeArguments());
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(typeArguments) ^ Objects.hashCode(getOwnerType) ^ Objects.hashCode(getRawType);
+    }
+
+    @Override
+    public String toString() {
+      return getTypeName();
+    }
+
+    @Override
+    public String getTypeName() {
+      return getRawType.getTypeName() + Arrays.stream(typeArguments).map(Type::getTypeName).collect(Collectors.joining(", ", "<", ">"));
+    }
+  }
+
+  private record ResolvedGenericArrayType(Type getGenericComponentType) implements GenericArrayType {
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof GenericArrayType genericArrayType &&
+          getGenericComponentType.equals(genericArrayType.getGenericComponentType());
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(getGenericComponentType);
+    }
+
+    @Override
+    public String toString() {
+      return getTypeName();
+    }
+
+    @Override
+    public String getTypeName() {
+      return getGenericComponentType.getTypeName() + "[]";
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package com.github.forax.framework.mapper;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Asks the annotation processor of the module {@code mapper-processor} to generate
+ * a {@link Codec} for a record or a bean at compile time.
+ */
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface JSONCodec { }
@@ -0,0 +1,257 @@
+package com.github.forax.framework.mapper;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Measures the calls of a {@link JSONReader} and a {@link JSONWriter} per root type,
+ * the class of the decoded or encoded value.
+ *
+ * For each root type and each operation, the metrics record the number of calls, the size of the texts
+ * (the number of characters, or of bytes for the binary format), the bytes allocated by the calling thread
+ * and the durations in a histogram with a bucket per power of two of nanoseconds.
+ * Each call also emits a JFR event {@code com.github.forax.framework.mapper.JSON} if the event is enabled.
+ *
+ * The metrics are disabled by default, a reader or a writer without metrics only checks
+ * that its metrics are null. A metrics can be shared by several readers, writers and threads.
+ *
+ * The streaming methods {@link JSONWriter#writeJSON(Iterable, java.nio.channels.WritableByteChannel)}
+ * and {@link JSONWriter#writeJSONAsync(Iterable, java.nio.channels.WritableByteChannel)} are not measured.
+ *
+ * @see JSONReader#setMetrics(JSONMetrics)
+ * @see JSONWriter#setMetrics(JSONMetrics)
+ */
+public final class JSONMetrics {
+  /**
+   * The number of buckets of a histogram, the bucket {@code i} counts the durations
+   * between 2<sup>i</sup> (inclusive) and 2<sup>i+1</sup> (exclusive) nanoseconds,
+   * the bucket 0 also counts the durations of 0 nanosecond.
+   */
+  public static final int BUCKET_COUNT = 64;
+
+  /**
+   * The kind of call.
+   */
+  public enum Operation {
+    /**
+     * A JSON text or a binary value decoded by a {@link JSONReader}.
+     */
+    READ,
+    /**
+     * A value encoded by a {@link JSONWriter}.
+     */
+    WRITE
+  }
+
+  /**
+   * The metrics of a root type for an operation at the time of the snapshot.
+   *
+   * @param type the root type.
+   * @param operation the operation.
+   * @param count the number of calls.
+   * @param size the total size of the texts.
+   * @param allocatedBytes the total number of bytes allocated, 0 if the JVM does not measure it.
+   * @param totalNanos the total duration.
+   * @param histogram the number of calls per bucket of duration, see {@link #BUCKET_COUNT}.
+   */
+  public record TypeMetrics(Class<?> type, Operation operation, long count, long size, long allocatedBytes,
+                            long totalNanos, long[] histogram) {
+    public TypeMetrics {
+      Objects.requireNonNull(type);
+      Objects.requireNonNull(operation);
+      histogram = histogram.clone();
+    }
+
+    @Override
+    public long[] histogram() {
+      return histogram.clone();
+    }
+
+    /**
+     * Returns an upper bound of the duration of the given percentile of the calls.
+     * @param percentile a percentile between 0 and 100.
+     * @return the exclusive upper bound of the bucket containing the percentile, 0 if there is no call.
+     */
+    public long percentileNanos(double percentile) {
+      if (!(percentile >= 0 && percentile <= 100)) {
+        throw new IllegalArgumentException("invalid percentile " + percentile);
+      }
+      var threshold = (long) Math.ceil(count * percentile / 100);
+      var sum = 0L;
+      for (var i = 0; i < BUCKET_COUNT; i++) {
+        sum += histogram[i];
+        if (sum >= threshold && sum != 0) {
+          return i == BUCKET_COUNT - 1 ? Long.MAX_VALUE : 1L << (i + 1);
+        }
+      }
+      return 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof TypeMetrics metrics &&
+          type == metrics.type && operation == metrics.operation && count == metrics.count && size == metrics.size &&
+          allocatedBytes == metrics.allocatedBytes && totalNanos == metrics.totalNanos &&
+          Arrays.equals(histogram, metrics.histogram);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(type, operation, count, size, allocatedBytes, totalNanos) ^ Arrays.hashCode(histogram);
+    }
+
+    @Override
+    public String toString() {
+      return "TypeMetrics[type=" + type.getName() + ", operation=" + operation + ", count=" + count +
+          ", size=" + size + ", allocatedBytes=" + allocatedBytes + ", totalNanos=" + totalNanos + "]";
+    }
+  }
+
+  @Name("com.github.forax.framework.mapper.JSON")
+  @Label("JSON Mapping")
+  @Category("JSON")
+  @Description("A value decoded by a JSONReader or encoded by a JSONWriter")
+  static final class JSONEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Root Type")
+    Class<?> type;
+
+    @Label("Size")
+    long size;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+  }
+
+  // null if the JVM can not measure the allocated bytes of a thread
+  private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = threadMXBean();
+
+  private static com.sun.management.ThreadMXBean threadMXBean() {
+    if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadMXBean &&
+        threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled()) {
+      return threadMXBean;
+    }
+    return null;
+  }
+
+  private static long allocatedBytes() {
+    return THREAD_MX_BEAN == null ? 0 : THREAD_MX_BEAN.getCurrentThreadAllocatedBytes();
+  }
+
+  private static final class Counters {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder size = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKET_COUNT);
+
+    private void add(long size, long allocatedBytes, long nanos) {
+      count.increment();
+      this.size.add(size);
+      this.allocatedBytes.add(allocatedBytes);
+      totalNanos.add(nanos);
+      histogram.incrementAndGet(Math.max(0, 63 - Long.numberOfLeadingZeros(nanos)));
+    }
+
+    private TypeMetrics snapshot(Class<?> type, Operation operation) {
+      var histogram = new long[BUCKET_COUNT];
+      for (var i = 0; i < BUCKET_COUNT; i++) {
+        histogram[i] = this.histogram.get(i);
+      }
+      return new TypeMetrics(type, operation, count.sum(), size.sum(), allocatedBytes.sum(), totalNanos.sum(), histogram);
+    }
+  }
+
+  private final ConcurrentHashMap<Class<?>, Counters> readCounters = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Class<?>, Counters> writeCounters = new ConcurrentHashMap<>();
+
+  /**
+   * A call being measured.
+   */
+  final class Recording {
+    private final Operation operation;
+    private final Class<?> type;
+    private final JSONEvent event;
+    private final long startAllocatedBytes;
+    private final long startNanos;
+
+    private Recording(Operation operation, Class<?> type) {
+      this.operation = operation;
+      this.type = type;
+      var event = new JSONEvent();
+      event.begin();
+      this.event = event;
+      this.startAllocatedBytes = allocatedBytes();
+      this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Records the end of the call.
+     * @param size the size of the text.
+     */
+    void stop(long size) {
+      var nanos = System.nanoTime() - startNanos;
+      var allocatedBytes = allocatedBytes() - startAllocatedBytes;
+      var counterMap = operation == Operation.READ ? readCounters : writeCounters;
+      counterMap.computeIfAbsent(type, t -> new Counters()).add(size, allocatedBytes, nanos);
+      event.end();
+      if (event.shouldCommit()) {
+        event.operation = operation.name();
+        event.type = type;
+        event.size = size;
+        event.allocatedBytes = allocatedBytes;
+        event.commit();
+      }
+    }
+  }
+
+  /**
+   * Starts the measure of a call.
+   */
+  Recording start(Operation operation, Class<?> type) {
+    return new Recording(operation, type);
+  }
+
+  /**
+   * Returns the metrics of all the root types and operations,
+   * the root types that took the most time first.
+   * @return the metrics of all the root types and operations.
+   */
+  public List<TypeMetrics> snapshot() {
+    return Stream.concat(
+        readCounters.entrySet().stream().map(entry -> entry.getValue().snapshot(entry.getKey(), Operation.READ)),
+        writeCounters.entrySet().stream().map(entry -> entry.getValue().snapshot(entry.getKey(), Operation.WRITE)))
+        .sorted(Comparator.comparingLong(TypeMetrics::totalNanos).reversed())
+        .toList();
+  }
+
+  /**
+   * Removes all the recorded metrics.
+   */
+  public void reset() {
+    readCounters.clear();
+    writeCounters.clear();
+  }
+
+  @Override
+  public String toString() {
+    return "JSONMetrics" + snapshot();
+  }
+}
@@ -0,0 +1,106 @@
+package com.github.forax.framework.mapper;
+
+import java.io.Serial;
+
+/**
+ * Thrown when a JSON text can not be parsed or decoded.
+ *
+ * The exception reports the position of the error, as an offset and as a line and a column,
+ * and an excerpt of the text around the error of at most {@link #EXCERPT_LENGTH} characters,
+ * so the message stays small even if the text is large.
+ */
+public final class JSONParseException extends IllegalStateException {
+  @Serial
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The maximum length of an excerpt.
+   */
+  public static final int EXCERPT_LENGTH = 60;
+
+  private final String reason;
+  private final int offset;
+  private final int line;
+  private final int column;
+  private final String excerpt;
+  private final int excerptOffset;
+
+  private JSONParseException(String reason, int offset, int line, int column, String excerpt, int excerptOffset, Throwable cause) {
+    super(reason, cause);
+    this.reason = reason;
+    this.offset = offset;
+    this.line = line;
+    this.column = column;
+    this.excerpt = excerpt;
+    this.excerptOffset = excerptOffset;
+  }
+
+  /**
+   * Creates an exception for an error at an offset of the input,
+   * only the excerpt of the input is retained.
+   */
+  static JSONParseException of(String input, int offset, String reason, Throwable cause) {
+    var line = 1;
+    var lineStart = 0;
+    for (var i = 0; i < offset; i++) {
+      if (input.charAt(i) == '\n') {
+        line++;
+        lineStart = i + 1;
+      }
+    }
+    // the excerpt is on one line and centered on the error if possible
+    var start = Math.max(lineStart, offset - EXCERPT_LENGTH / 2);
+    var end = start;
+    while (end < input.length() && end - start < EXCERPT_LENGTH && input.charAt(end) != '\n' && input.charAt(end) != '\r') {
+      end++;
+    }
+    return new JSONParseException(reason, offset, line, offset - lineStart + 1, input.substring(start, end), offset - start, cause);
+  }
+
+  /**
+   * Returns the reason of the error without the position.
+   * @return the reason of the error.
+   */
+  public String reason() {
+    return reason;
+  }
+
+  /**
+   * Returns the offset of the error in the text, in characters.
+   * @return the offset of the error in the text.
+   */
+  public int offset() {
+    return offset;
+  }
+
+  /**
+   * Returns the line of the error, starting at 1.
+   * @return the line of the error.
+   */
+  public int line() {
+    return line;
+  }
+
+  /**
+   * Returns the column of the error, starting at 1.
+   * @return the column of the error.
+   */
+  public int column() {
+    return column;
+  }
+
+  /**
+   * Returns the part of the line of the text around the error.
+   * @return the part of the line of the text around the error.
+   */
+  public String excerpt() {
+    return excerpt;
+  }
+
+  @Override
+  public String getMessage() {
+    return reason + " at line " + line + ", column " + column + "\n" +
+        excerpt + "\n" +
+        " ".repeat(excerptOffset) + "^";
+  }
+}
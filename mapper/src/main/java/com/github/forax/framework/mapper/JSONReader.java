@@ -1,13 +1,40 @@
 package com.github.forax.framework.mapper;
 
 import java.beans.PropertyDescriptor;
+import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
 
 public class JSONReader {
-  private record BeanData(Constructor<?> constructor, Map<String, PropertyDescriptor> propertyMap) {
-    PropertyDescriptor findProperty(String key) {
+  /*
+   * A writable property of a bean, the converter of the built-in types is resolved once per property.
+   */
+  private record BeanProperty(PropertyDescriptor descriptor, Type type, Function<Object, Object> converter) { }
+
+  private record BeanData(Constructor<?> constructor, Map<String, BeanProperty> propertyMap) {
+    BeanProperty findProperty(String key) {
       var property = propertyMap.get(key);
       if (property == null) {
         throw new IllegalStateException("unknown key " + key + " for bean " + constructor.getDeclaringClass().getName());
@@ -19,46 +46,960 @@ public class JSONReader {
   private static final ClassValue<BeanData> BEAN_DATA_CLASS_VALUE = new ClassValue<>() {
     @Override
     protected BeanData computeValue(Class<?> type) {
-      throw new UnsupportedOperationException("TODO");
+      var beanInfo = Utils.beanInfo(type);
+      var propertyMap = Arrays.stream(beanInfo.getPropertyDescriptors())
+          .filter(property -> property.getWriteMethod() != null)
+          .collect(toMap(JSONReader::propertyName, property -> {
+            // getGenericParameterTypes() returns a new array at each call
+            var propertyType = property.getWriteMethod().getGenericParameterTypes()[0];
+            return new BeanProperty(property, propertyType, valueConverter(propertyType));
+          }));
+      return new BeanData(Utils.defaultConstructor(type), propertyMap);
     }
   };
 
-  public Object parseJSON(String text, Class<?> beanClass) {
-    Objects.requireNonNull(text);
-    Objects.requireNonNull(beanClass);
-    var visitor = new ToyJSONParser.JSONVisitor() {
-      private BeanData beanData;
-      private Object result;
-
-      @Override
-      public void value(String key, Object value) {
-        // call the corresponding setter on result
-        throw new UnsupportedOperationException("TODO");
+  private static String propertyName(PropertyDescriptor property) {
+    var getter = property.getReadMethod();
+    if (getter != null) {
+      var annotation = getter.getAnnotation(JSONProperty.class);
+      if (annotation != null) {
+        return annotation.value();
       }
+    }
+    return property.getName();
+  }
 
-      @Override
-      public void startObject(String key) {
-        //get the beanData and store it in the field
-        //create an instance and store it in result
-        throw new UnsupportedOperationException("TODO");
+  private record RecordData(Constructor<?> constructor, Map<String, Integer> indexMap, RecordComponent[] components,
+                            List<Function<Object, Object>> converters, Object[] defaultValues) {
+    int findIndex(String key) {
+      var index = indexMap.get(key);
+      if (index == null) {
+        throw new IllegalStateException("unknown key " + key + " for record " + constructor.getDeclaringClass().getName());
       }
+      return index;
+    }
+  }
 
-      @Override
-      public void endObject(String key) {
-        // do nothing
+  private static final ClassValue<RecordData> RECORD_DATA_CLASS_VALUE = new ClassValue<>() {
+    @Override
+    protected RecordData computeValue(Class<?> type) {
+      var components = type.getRecordComponents();
+      var indexMap = new HashMap<String, Integer>();
+      for (var i = 0; i < components.length; i++) {
+        indexMap.put(componentName(components[i]), i);
       }
+      // missing keys are initialized with the default value of the component type
+      var defaultValues = Arrays.stream(components)
+          .map(component -> component.getType().isPrimitive() ? Array.get(Array.newInstance(component.getType(), 1), 0) : null)
+          .toArray();
+      var converters = Arrays.stream(components)
+          .map(component -> valueConverter(component.getGenericType()))
+          .toList();
+      return new RecordData(Utils.canonicalConstructor(type, components), indexMap, components, converters, defaultValues);
+    }
+  };
 
+  private static String componentName(RecordComponent component) {
+    var annotation = component.getAnnotation(JSONProperty.class);
+    return annotation != null ? annotation.value() : component.getName();
+  }
+
+  // enums, java.time types, UUID, BigDecimal and BigInteger are decoded from strings or numbers,
+  // the converter is resolved once per property, not once per value
+  private static Function<Object, Object> valueConverter(Type type) {
+    // the integers that do not fit in an int are decoded as Long
+    if (type == int.class || type == Integer.class) {
+      return value -> {
+        if (value instanceof Long l) {
+          throw new IllegalStateException("value " + l + " out of range for int");
+        }
+        return value;
+      };
+    }
+    if (type == Long.class) {  // the reflection does not widen an Integer to a Long
+      return value -> value instanceof Integer i ? (Object) (long) i : value;
+    }
+    var converter = type instanceof Class<?> clazz && !clazz.isPrimitive() ? BuiltInCodecs.converter(clazz) : null;
+    if (converter == null) {
+      return identity();
+    }
+    return value -> value instanceof String || value instanceof Number ? converter.apply(value) : value;
+  }
+
+  // the generated codecs do not know the built-in types, the converter is resolved once per key
+  private static <T> ObjectBuilder<T> converting(ObjectBuilder<T> objectBuilder) {
+    var typeProvider = objectBuilder.typeProvider();
+    var populater = objectBuilder.populater();
+    var converterMap = new ConcurrentHashMap<String, Function<Object, Object>>();
+    return new ObjectBuilder<>(
+        typeProvider,
+        objectBuilder.supplier(),
+        (instance, key, value) -> {
+          var converter = converterMap.computeIfAbsent(key, k -> valueConverter(typeProvider.apply(k)));
+          populater.populate(instance, key, converter.apply(value));
+        },
+        objectBuilder.finisher()
+    );
+  }
+
+  public record ObjectBuilder<T>(Function<? super String, ? extends Type> typeProvider,
+                                 Supplier<? extends T> supplier,
+                                 Populater<? super T> populater,
+                                 Function<? super T, ?> finisher) {
+    public interface Populater<T> {
+      void populate(T instance, String key, Object value);
+    }
+
+    public ObjectBuilder {
+      Objects.requireNonNull(typeProvider);
+      Objects.requireNonNull(supplier);
+      Objects.requireNonNull(populater);
+      Objects.requireNonNull(finisher);
+    }
+
+    private static final ClassValue<ObjectBuilder<Object>> BEAN_CLASS_VALUE = new ClassValue<>() {
       @Override
-      public void startArray(String key) {
-        throw new UnsupportedOperationException("Implemented later");
+      protected ObjectBuilder<Object> computeValue(Class<?> type) {
+        return createBean(type);
       }
+    };
 
+    private static final ClassValue<ObjectBuilder<Object[]>> RECORD_CLASS_VALUE = new ClassValue<>() {
       @Override
-      public void endArray(String key) {
-        throw new UnsupportedOperationException("Implemented later");
+      protected ObjectBuilder<Object[]> computeValue(Class<?> type) {
+        return createRecord(type);
       }
     };
-    ToyJSONParser.parse(text, visitor);
+
+    /**
+     * Returns the object builder of a bean class, the same object builder is returned
+     * for the same class.
+     *
+     * @param beanClass a class with a public default constructor.
+     * @return the object builder of a bean class.
+     */
+    public static ObjectBuilder<Object> bean(Class<?> beanClass) {
+      Objects.requireNonNull(beanClass);
+      return BEAN_CLASS_VALUE.get(beanClass);
+    }
+
+    private static ObjectBuilder<Object> createBean(Class<?> beanClass) {
+      var codec = GeneratedCodecs.codec(beanClass);
+      if (codec != null && !beanClass.isRecord()) {
+        @SuppressWarnings("unchecked")  // see Codec.objectBuilder()
+        var objectBuilder = (ObjectBuilder<Object>) codec.objectBuilder();
+        return converting(objectBuilder);
+      }
+      var beanData = BEAN_DATA_CLASS_VALUE.get(beanClass);
+      var constructor = beanData.constructor;
+      return new ObjectBuilder<>(
+          key -> beanData.findProperty(key).type,
+          () -> Utils.newInstance(constructor),
+          (instance, key, value) -> {
+            var property = beanData.findProperty(key);
+            Utils.invokeMethod(instance, property.descriptor.getWriteMethod(), property.converter.apply(value));
+          },
+          identity()
+      );
+    }
+
+    public static ObjectBuilder<List<Object>> list(Type elementType) {
+      Objects.requireNonNull(elementType);
+      var converter = valueConverter(elementType);
+      return new ObjectBuilder<>(
+          key -> elementType,
+          ArrayList::new,
+          (list, key, value) -> list.add(converter.apply(value)),
+          Collections::unmodifiableList  // may contain null
+      );
+    }
+
+    /**
+     * Returns the object builder of a JSON object decoded as an unmodifiable {@code Map<String, V>}
+     * that keeps the order of the keys.
+     * The map has no object per entry and if the values are int or long, they are not boxed.
+     * The map is not presized, its arrays grow when keys are added.
+     *
+     * @param valueType the type of the values.
+     * @return the object builder of a map.
+     *
+     * @see #map(Type, int)
+     */
+    public static ObjectBuilder<?> map(Type valueType) {
+      return map(valueType, 0);
+    }
+
+    /**
+     * Returns the object builder of a JSON object decoded as an unmodifiable {@code Map<String, V>}
+     * that keeps the order of the keys, presized for an expected number of keys.
+     * The map has no object per entry and if the values are int or long, they are not boxed.
+     *
+     * The number of keys of a top-level object is the element count of
+     * {@link JSONReader#scanJSON(String)}.
+     *
+     * @param valueType the type of the values.
+     * @param expectedSize the expected number of keys.
+     * @return the object builder of a map.
+     * @throws IllegalArgumentException if the expected size is negative.
+     */
+    public static ObjectBuilder<?> map(Type valueType, int expectedSize) {
+      Objects.requireNonNull(valueType);
+      if (expectedSize < 0) {
+        throw new IllegalArgumentException("invalid expected size " + expectedSize);
+      }
+      var valueClass = Utils.erase(valueType);
+      if (valueClass == int.class || valueClass == Integer.class) {
+        return new ObjectBuilder<>(key -> valueType, () -> new CompactMaps.IntValueMap(expectedSize),
+            CompactMaps.IntValueMap::populate, identity());
+      }
+      if (valueClass == long.class || valueClass == Long.class) {
+        return new ObjectBuilder<>(key -> valueType, () -> new CompactMaps.LongValueMap(expectedSize),
+            CompactMaps.LongValueMap::populate, identity());
+      }
+      var converter = valueConverter(valueType);
+      return new ObjectBuilder<CompactMaps.ObjectValueMap>(key -> valueType, () -> new CompactMaps.ObjectValueMap(expectedSize),
+          (map, key, value) -> map.populate(key, converter.apply(value)), identity());
+    }
+
+    /**
+     * Returns the object builder of a record class, the same object builder is returned
+     * for the same class.
+     *
+     * @param recordClass a record class with a public canonical constructor.
+     * @return the object builder of a record class.
+     */
+    public static ObjectBuilder<Object[]> record(Class<?> recordClass) {
+      Objects.requireNonNull(recordClass);
+      return RECORD_CLASS_VALUE.get(recordClass);
+    }
+
+    private static ObjectBuilder<Object[]> createRecord(Class<?> recordClass) {
+      var codec = GeneratedCodecs.codec(recordClass);
+      if (codec != null && recordClass.isRecord()) {
+        @SuppressWarnings("unchecked")  // see Codec.objectBuilder()
+        var objectBuilder = (ObjectBuilder<Object[]>) codec.objectBuilder();
+        return converting(objectBuilder);
+      }
+      var recordData = RECORD_DATA_CLASS_VALUE.get(recordClass);
+      var components = recordData.components;
+      var converters = recordData.converters;
+      var defaultValues = recordData.defaultValues;
+      return new ObjectBuilder<>(
+          key -> components[recordData.findIndex(key)].getGenericType(),
+          defaultValues::clone,
+          (array, key, value) -> {
+            var index = recordData.findIndex(key);
+            array[index] = converters.get(index).apply(value);
+          },
+          array -> Utils.newInstance(recordData.constructor, array)
+      );
+    }
+
+    /**
+     * Returns an object builder for a sealed hierarchy, the concrete class of an object
+     * is selected by the value of the discriminator key, the simple name of the class,
+     * by example {@code {"kind": "Circle", "radius": 2.0}}.
+     *
+     * The table from the names to the object builders is computed once when this method
+     * is called, so the object builder should be created once and reused by the {@link TypeMatcher}.
+     * The keys that appear before the discriminator are buffered and replayed in order
+     * once the concrete class is known. The discriminator itself is not populated.
+     * A key shared by several subtypes must have the same type in all of them.
+     *
+     * @param sealedType a sealed interface or class.
+     * @param discriminatorKey the key of the name of the concrete class.
+     * @param subtypeBuilder a function that returns the object builder of a concrete class,
+     *                       by example {@code ObjectBuilder::record}.
+     * @return an object builder that delegates to the object builder of the concrete class.
+     * @throws IllegalArgumentException if the type is not sealed or if two concrete classes have the same simple name.
+     */
+    public static ObjectBuilder<?> sealed(Class<?> sealedType, String discriminatorKey,
+                                          Function<? super Class<?>, ? extends ObjectBuilder<?>> subtypeBuilder) {
+      Objects.requireNonNull(sealedType);
+      Objects.requireNonNull(discriminatorKey);
+      Objects.requireNonNull(subtypeBuilder);
+      if (!sealedType.isSealed()) {
+        throw new IllegalArgumentException(sealedType.getName() + " is not sealed");
+      }
+      var builderMap = new HashMap<String, ObjectBuilder<Object>>();
+      for (var subtype : concreteSubtypes(sealedType)) {
+        @SuppressWarnings("unchecked")  // the builder is only used with its own instance
+        var builder = (ObjectBuilder<Object>) subtypeBuilder.apply(subtype);
+        if (builderMap.put(subtype.getSimpleName(), Objects.requireNonNull(builder)) != null) {
+          throw new IllegalArgumentException("several subtypes of " + sealedType.getName() + " are named " + subtype.getSimpleName());
+        }
+      }
+      var builders = List.copyOf(builderMap.values());
+      var typeMap = new ConcurrentHashMap<String, Type>();
+      return new ObjectBuilder<Polymorphic>(
+          // the discriminator is not a key of the subtypes
+          key -> discriminatorKey.equals(key) ? String.class : typeMap.computeIfAbsent(key, k -> subtypeType(sealedType, builders, k)),
+          Polymorphic::new,
+          (polymorphic, key, value) -> polymorphic.populate(sealedType, discriminatorKey, builderMap, key, value),
+          polymorphic -> polymorphic.finish(sealedType, discriminatorKey)
+      );
+    }
+
+    private static List<Class<?>> concreteSubtypes(Class<?> sealedType) {
+      return Arrays.stream(sealedType.getPermittedSubclasses())
+          .<Class<?>>mapMulti((subtype, consumer) -> {
+            if (subtype.isSealed()) {
+              concreteSubtypes(subtype).forEach(consumer);
+            }
+            if (!subtype.isInterface() && !Modifier.isAbstract(subtype.getModifiers())) {
+              consumer.accept(subtype);
+            }
+          })
+          .toList();
+    }
+
+    // the type of a value is requested before its value is populated, so maybe before the discriminator is seen
+    private static Type subtypeType(Class<?> sealedType, List<ObjectBuilder<Object>> builders, String key) {
+      Type result = null;
+      for (var builder : builders) {
+        Type type;
+        try {
+          type = builder.typeProvider().apply(key);
+        } catch (IllegalStateException e) {  // unknown key
+          continue;
+        }
+        if (result != null && !result.equals(type)) {
+          throw new IllegalStateException("key " + key + " has several types in the subtypes of " + sealedType.getName());
+        }
+        result = type;
+      }
+      if (result == null) {
+        throw new IllegalStateException("unknown key " + key + " for the subtypes of " + sealedType.getName());
+      }
+      return result;
+    }
+  }
+
+  /*
+   * The instance of a sealed hierarchy being built, the keys and values seen before
+   * the discriminator are stored in two arrays and populated when the concrete builder is known.
+   */
+  private static final class Polymorphic {
+    private ObjectBuilder<Object> builder;
+    private Object instance;
+    private String[] keys;
+    private Object[] values;
+    private int size;
+
+    void populate(Class<?> sealedType, String discriminatorKey, Map<String, ObjectBuilder<Object>> builderMap, String key, Object value) {
+      if (builder != null) {
+        builder.populater().populate(instance, key, value);
+        return;
+      }
+      if (!discriminatorKey.equals(key)) {
+        buffer(key, value);
+        return;
+      }
+      var builder = value instanceof String name ? builderMap.get(name) : null;
+      if (builder == null) {
+        throw new IllegalStateException("unknown subtype " + value + " of " + sealedType.getName());
+      }
+      this.builder = builder;
+      instance = builder.supplier().get();
+      for (var i = 0; i < size; i++) {
+        builder.populater().populate(instance, keys[i], values[i]);
+      }
+      keys = null;
+      values = null;
+    }
+
+    private void buffer(String key, Object value) {
+      if (keys == null) {
+        keys = new String[4];
+        values = new Object[4];
+      } else if (size == keys.length) {
+        keys = Arrays.copyOf(keys, size << 1);
+        values = Arrays.copyOf(values, size << 1);
+      }
+      keys[size] = key;
+      values[size] = value;
+      size++;
+    }
+
+    Object finish(Class<?> sealedType, String discriminatorKey) {
+      if (builder == null) {
+        throw new IllegalStateException("no discriminator " + discriminatorKey + " for " + sealedType.getName());
+      }
+      return builder.finisher().apply(instance);
+    }
+  }
+
+  @FunctionalInterface
+  public interface TypeMatcher {
+    Optional<ObjectBuilder<?>> match(Type type);
+
+    /**
+     * Returns a type matcher of the types {@code Map<String, V>} that uses {@link ObjectBuilder#map(Type)},
+     * so the maps are not presized, a type matcher using {@link ObjectBuilder#map(Type, int)} is needed for that.
+     * @return a type matcher of the maps with string keys.
+     */
+    static TypeMatcher maps() {
+      return type -> {
+        if (type instanceof ParameterizedType parameterizedType && parameterizedType.getRawType() == Map.class) {
+          var typeArguments = parameterizedType.getActualTypeArguments();
+          if (typeArguments[0] == String.class) {
+            return Optional.of(ObjectBuilder.map(typeArguments[1]));
+          }
+        }
+        return Optional.empty();
+      };
+    }
+  }
+
+  public interface TypeReference<T> { }
+
+  /**
+   * A set of JSON paths to decode, all the other values are skipped by the parser
+   * without being converted nor bound.
+   *
+   * A path uses the JSON pointer syntax, {@code /address/zipCode}, and only navigates
+   * through the keys of JSON objects, the elements of a JSON array share the path of the array.
+   *
+   * @see #parseJSON(String, Type, Projection)
+   */
+  public static final class Projection {
+    /**
+     * The projection that decodes all the values.
+     */
+    public static final Projection ALL = new Projection(Map.of());
+
+    // an empty map means that all the values are selected
+    private final Map<String, Projection> children;
+
+    private Projection(Map<String, Projection> children) {
+      this.children = children;
+    }
+
+    /**
+     * Creates a projection from several JSON pointers.
+     * @param paths the JSON pointers of the values to decode.
+     * @return a new projection.
+     */
+    public static Projection of(String... paths) {
+      return of(List.of(paths));
+    }
+
+    /**
+     * Creates a projection from a collection of JSON pointers.
+     * @param paths the JSON pointers of the values to decode.
+     * @return a new projection.
+     */
+    public static Projection of(Collection<String> paths) {
+      var root = new Node();
+      for (var path : paths) {
+        if (!path.startsWith("/")) {
+          throw new IllegalArgumentException("invalid JSON pointer " + path);
+        }
+        var node = root;
+        for (var segment : path.substring(1).split("/", -1)) {
+          node = node.children.computeIfAbsent(segment.replace("~1", "/").replace("~0", "~"), __ -> new Node());
+        }
+        node.all = true;
+      }
+      if (root.children.isEmpty()) {
+        throw new IllegalArgumentException("no JSON pointer");
+      }
+      return root.freeze();
+    }
+
+    private static final class Node {
+      private final HashMap<String, Node> children = new HashMap<>();
+      private boolean all;
+
+      private Projection freeze() {
+        if (all) {
+          // a prefix selects all the values below
+          return ALL;
+        }
+        var map = new HashMap<String, Projection>();
+        children.forEach((key, child) -> map.put(key, child.freeze()));
+        return new Projection(Map.copyOf(map));
+      }
+    }
+
+    boolean accept(String key) {
+      return key == null || children.isEmpty() || children.containsKey(key);
+    }
+
+    Projection child(String key) {
+      if (key == null || children.isEmpty()) {
+        return this;
+      }
+      return children.get(key);
+    }
+
+    @Override
+    public String toString() {
+      return children.isEmpty() ? "*" : children.toString();
+    }
+  }
+
+  // the type of a JSON object storing the elements column by column
+  private record Columns(Type elementType) implements Type { }
+
+  // the type of a JSON array storing the values of one key of all the elements
+  private record Column(Type valueType) implements Type { }
+
+  private static <T> ObjectBuilder<Map<String, List<?>>> columns(ObjectBuilder<T> elementBuilder) {
+    return new ObjectBuilder<>(
+        key -> new Column(elementBuilder.typeProvider().apply(key)),
+        LinkedHashMap::new,
+        (columns, key, value) -> {
+          if (!(value instanceof List<?> column)) {
+            throw new IllegalStateException("the value of the column " + key + " is not an array");
+          }
+          columns.put(key, column);
+        },
+        columns -> rows(elementBuilder, columns)
+    );
+  }
+
+  // the values are converted when populating the elements, not in the column
+  private static ObjectBuilder<List<Object>> column(Type valueType) {
+    return new ObjectBuilder<>(
+        key -> valueType,
+        ArrayList::new,
+        (list, key, value) -> list.add(value),
+        identity()
+    );
+  }
+
+  private static <T> List<Object> rows(ObjectBuilder<T> elementBuilder, Map<String, List<?>> columns) {
+    var size = columns.values().stream().mapToInt(List::size).max().orElse(0);
+    columns.forEach((key, column) -> {
+      if (column.size() != size) {
+        throw new IllegalStateException("the column " + key + " has " + column.size() + " values instead of " + size);
+      }
+    });
+    var rows = new ArrayList<>(size);
+    for (var i = 0; i < size; i++) {
+      var data = elementBuilder.supplier().get();
+      for (var entry : columns.entrySet()) {
+        elementBuilder.populater().populate(data, entry.getKey(), entry.getValue().get(i));
+      }
+      rows.add(elementBuilder.finisher().apply(data));
+    }
+    return Collections.unmodifiableList(rows);
+  }
+
+  private final ArrayList<TypeMatcher> typeMatchers = new ArrayList<>();
+
+  // the object builder of a type is searched once, it depends on the type matchers
+  private final ConcurrentHashMap<Type, ObjectBuilder<?>> objectBuilderCache = new ConcurrentHashMap<>();
+
+  public void addTypeMatcher(TypeMatcher typeMatcher) {
+    Objects.requireNonNull(typeMatcher);
+    typeMatchers.add(typeMatcher);
+    objectBuilderCache.clear();
+  }
+
+  private StringCache stringCache;
+
+  /**
+   * Shares the keys and the string values decoded by this reader using a string cache,
+   * this reduces the memory retained by the decoded objects when the same strings are repeated.
+   *
+   * @param stringCache a string cache or {@code null} to not use a cache.
+   */
+  public void setStringCache(StringCache stringCache) {
+    this.stringCache = stringCache;
+  }
+
+  private JSONMetrics metrics;
+
+  /**
+   * Records the calls of this reader per root type, the class of the decoded value.
+   * The calls that fail are not recorded.
+   *
+   * @param metrics the metrics or {@code null} to not record the calls.
+   */
+  public void setMetrics(JSONMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  private JSONMetrics.Recording startRecording(Type expectedType) {
+    var metrics = this.metrics;
+    if (metrics == null) {
+      return null;
+    }
+    var type = expectedType instanceof Columns columns ? columns.elementType : expectedType;
+    return metrics.start(JSONMetrics.Operation.READ, Utils.erase(type));
+  }
+
+  ObjectBuilder<?> findObjectBuilder(Type type) {
+    switch (type) {
+      case Columns columns -> { return columns(findObjectBuilder(columns.elementType)); }
+      case Column column -> { return column(column.valueType); }
+      default -> {}
+    }
+    return objectBuilderCache.computeIfAbsent(type, this::matchObjectBuilder);
+  }
+
+  private ObjectBuilder<?> matchObjectBuilder(Type type) {
+    var objectBuilder = typeMatchers.reversed().stream()
+        .flatMap(typeMatcher -> typeMatcher.match(type).stream())
+        .findFirst()
+        .orElseGet(() -> ObjectBuilder.bean(Utils.erase(type)));
+    var bindings = GenericTypes.bindings(type);
+    return bindings.isEmpty() ? objectBuilder : resolving(objectBuilder, bindings);
+  }
+
+  private static <T> ObjectBuilder<T> resolving(ObjectBuilder<T> objectBuilder, Map<TypeVariable<?>, Type> bindings) {
+    var typeProvider = objectBuilder.typeProvider();
+    var populater = objectBuilder.populater();
+    // the values declared with a type variable are converted once the type is resolved
+    var converterMap = new ConcurrentHashMap<Type, Function<Object, Object>>();
+    return new ObjectBuilder<>(
+        new ResolvingTypeProvider(typeProvider, bindings),
+        objectBuilder.supplier(),
+        (instance, key, value) -> {
+          if (value instanceof String || value instanceof Number) {
+            var type = typeProvider.apply(key);
+            if (!(type instanceof Class<?>)) {
+              value = converterMap.computeIfAbsent(type, t -> valueConverter(GenericTypes.resolve(t, bindings))).apply(value);
+            }
+          }
+          populater.populate(instance, key, value);
+        },
+        objectBuilder.finisher()
+    );
+  }
+
+  /*
+   * Resolves a declared type once, the object builder is cached by type so
+   * the resolved types are computed once per (type, declared type).
+   * The classes have no type variable, so they are not cached, by example
+   * the keys of a map are not stored.
+   */
+  private static final class ResolvingTypeProvider implements Function<String, Type> {
+    private final Function<? super String, ? extends Type> typeProvider;
+    private final Map<TypeVariable<?>, Type> bindings;
+    private final ConcurrentHashMap<Type, Type> resolvedTypeMap = new ConcurrentHashMap<>();
+
+    private ResolvingTypeProvider(Function<? super String, ? extends Type> typeProvider, Map<TypeVariable<?>, Type> bindings) {
+      this.typeProvider = typeProvider;
+      this.bindings = bindings;
+    }
+
+    @Override
+    public Type apply(String key) {
+      var type = typeProvider.apply(key);
+      if (type instanceof Class<?>) {
+        return type;
+      }
+      return resolvedTypeMap.computeIfAbsent(type, t -> GenericTypes.resolve(t, bindings));
+    }
+  }
+
+  // reused is true if the result is an existing bean
+  private record Context<T>(ObjectBuilder<T> objectBuilder, T result, Projection projection, boolean reused) {
+    void populate(String key, Object value) {
+      objectBuilder.populater().populate(result, key, value);
+    }
+
+    Object finish() {
+      return objectBuilder.finisher().apply(result);
+    }
+
+    static <T> Context<T> createContext(ObjectBuilder<T> objectBuilder, Projection projection) {
+      return new Context<>(objectBuilder, objectBuilder.supplier().get(), projection, false);
+    }
+  }
+
+  public <T> T parseJSON(String text, Class<T> expectedClass) {
+    return expectedClass.cast(parseJSON(text, (Type) expectedClass));
+  }
+
+  public Object parseJSON(String text, Type expectedType) {
+    return parseJSON(text, expectedType, Projection.ALL);
+  }
+
+  public <T> T parseJSON(String text, TypeReference<T> typeReference) {
+    @SuppressWarnings("unchecked")
+    var result = (T) parseJSON(text, findDecodedType(typeReference));
+    return result;
+  }
+
+  /**
+   * Decodes a JSON text but only binds the values selected by the projection,
+   * the bean properties and the record components that are not selected keep their default values.
+   *
+   * @param text a JSON text.
+   * @param expectedClass the class of the decoded value.
+   * @param projection the values to decode.
+   * @return the decoded value.
+   */
+  public <T> T parseJSON(String text, Class<T> expectedClass, Projection projection) {
+    return expectedClass.cast(parseJSON(text, (Type) expectedClass, projection));
+  }
+
+  /**
+   * Decodes a JSON text but only binds the values selected by the projection,
+   * the bean properties and the record components that are not selected keep their default values.
+   *
+   * @param text a JSON text.
+   * @param expectedType the type of the decoded value.
+   * @param projection the values to decode.
+   * @return the decoded value.
+   */
+  public Object parseJSON(String text, Type expectedType, Projection projection) {
+    Objects.requireNonNull(text);
+    Objects.requireNonNull(expectedType);
+    Objects.requireNonNull(projection);
+    var recording = startRecording(expectedType);
+    var visitor = new BuilderVisitor(expectedType, projection);
+    ToyJSONParser.parse(text, visitor, stringCache);
+    if (recording != null) {
+      recording.stop(text.length());
+    }
+    return visitor.result;
+  }
+
+  /**
+   * The result of {@link #scanJSON(String)}.
+   *
+   * @param elementCount the number of elements of the top-level array or the number of members of the top-level object.
+   * @param maxDepth the maximum nesting of arrays and objects, 1 if the top-level value contains no array nor object.
+   */
+  public record ScanResult(int elementCount, int maxDepth) { }
+
+  /**
+   * Checks that a JSON text is well-formed and counts its top-level elements,
+   * like {@link #validateJSON(String)}, no object is built and no value is decoded,
+   * the tokens are only recognized.
+   *
+   * @param text a JSON text.
+   * @return the number of top-level elements and the maximum depth.
+   * @throws JSONParseException at the first error, with its position in the text.
+   */
+  public ScanResult scanJSON(String text) {
+    Objects.requireNonNull(text);
+    return ToyJSONParser.scan(text);
+  }
+
+  /**
+   * Checks that a JSON text is well-formed, without decoding it nor building any object.
+   * Unlike the parsing, the unknown characters and the text after the end of the value are errors.
+   *
+   * @param text a JSON text.
+   * @throws JSONParseException at the first error, with its position in the text.
+   */
+  public void validateJSON(String text) {
+    Objects.requireNonNull(text);
+    ToyJSONParser.validate(text);
+  }
+
+  /**
+   * Decodes a JSON object into an existing bean, the setters are called on the bean
+   * instead of creating a new one. The nested beans are also reused if the getter of
+   * a property returns a bean of the class that would have been created.
+   * The properties that are not in the JSON object keep their values.
+   *
+   * @param text a JSON text of an object.
+   * @param bean the bean to populate.
+   * @return the bean.
+   * @throws IllegalArgumentException if the bean is a record.
+   */
+  public <T> T parseJSONInto(String text, T bean) {
+    Objects.requireNonNull(text);
+    Objects.requireNonNull(bean);
+    if (bean.getClass().isRecord()) {
+      throw new IllegalArgumentException("a record can not be modified " + bean.getClass().getName());
+    }
+    var recording = startRecording(bean.getClass());
+    var visitor = new BuilderVisitor(bean.getClass(), Projection.ALL, bean);
+    ToyJSONParser.parse(text, visitor, stringCache);
+    if (recording != null) {
+      recording.stop(text.length());
+    }
+    return bean;
+  }
+
+  /**
+   * Decodes a JSON array of objects into a memory segment outside the heap and
+   * returns views of the elements as implementations of an interface.
+   * Each abstract method of the interface is an accessor of a key of the objects,
+   * its name or the value of {@link JSONProperty}, that returns a primitive type (apart char) or a String.
+   * The value of an accessor is decoded from the segment at each call, the other keys are skipped.
+   * The {@link TypeMatcher}s and the {@link ObjectBuilder}s are not used.
+   *
+   * @param text a JSON text of an array of objects.
+   * @param viewType the interface of the views.
+   * @return an unmodifiable list of views.
+   * @throws IllegalArgumentException if the type is not an interface or an accessor is not supported.
+   */
+  public <T> List<T> parseFlyweightJSON(String text, Class<T> viewType) {
+    Objects.requireNonNull(text);
+    Objects.requireNonNull(viewType);
+    var recording = startRecording(viewType);
+    var views = FlyweightViews.parse(text, viewType);
+    if (recording != null) {
+      recording.stop(text.length());
+    }
+    return views;
+  }
+
+  /**
+   * Decodes a JSON text encoded column by column by {@link JSONWriter#toColumnarJSON(List, Class)}
+   * into a list of elements.
+   *
+   * @param text a columnar JSON text.
+   * @param elementClass the class of the elements.
+   * @return an unmodifiable list of elements.
+   */
+  public <T> List<T> parseColumnarJSON(String text, Class<T> elementClass) {
+    @SuppressWarnings("unchecked")
+    var list = (List<T>) parseColumnarJSON(text, (Type) elementClass);
+    list.forEach(elementClass::cast);
+    return list;
+  }
+
+  /**
+   * Decodes a JSON text encoded column by column by {@link JSONWriter#toColumnarJSON(List, Class)}
+   * into a list of elements.
+   *
+   * @param text a columnar JSON text.
+   * @param elementType the type of the elements.
+   * @return an unmodifiable list of elements.
+   */
+  public List<?> parseColumnarJSON(String text, Type elementType) {
+    Objects.requireNonNull(elementType);
+    return (List<?>) parseJSON(text, new Columns(elementType));
+  }
+
+  /**
+   * Decodes a value encoded by {@link JSONWriter#toBinary(Object)}
+   * using the same {@link TypeMatcher}s and {@link ObjectBuilder}s as {@link #parseJSON(String, Class)}.
+   *
+   * @param data the binary encoded value.
+   * @param expectedClass the class of the decoded value.
+   * @return the decoded value.
+   */
+  public <T> T parseBinary(byte[] data, Class<T> expectedClass) {
+    return expectedClass.cast(parseBinary(data, (Type) expectedClass));
+  }
+
+  /**
+   * Decodes a value encoded by {@link JSONWriter#toBinary(Object)}
+   * using the same {@link TypeMatcher}s and {@link ObjectBuilder}s as {@link #parseJSON(String, Type)}.
+   *
+   * @param data the binary encoded value.
+   * @param expectedType the type of the decoded value.
+   * @return the decoded value.
+   */
+  public Object parseBinary(byte[] data, Type expectedType) {
+    Objects.requireNonNull(data);
+    Objects.requireNonNull(expectedType);
+    var recording = startRecording(expectedType);
+    var visitor = new BuilderVisitor(expectedType, Projection.ALL);
+    BinaryJSON.parse(data, visitor, stringCache);
+    if (recording != null) {
+      recording.stop(data.length);
+    }
     return visitor.result;
   }
+
+  private final class BuilderVisitor implements ToyJSONParser.JSONVisitor {
+    private final Type expectedType;
+    private final Projection projection;
+    private final ArrayDeque<Context<?>> stack = new ArrayDeque<>();
+    private final Object bean;  // the bean to populate or null
+    private Object result;
+
+    private BuilderVisitor(Type expectedType, Projection projection) {
+      this(expectedType, projection, null);
+    }
+
+    private BuilderVisitor(Type expectedType, Projection projection, Object bean) {
+      this.expectedType = expectedType;
+      this.projection = projection;
+      this.bean = bean;
+    }
+
+    @Override
+    public boolean acceptKey(String key) {
+      return stack.peek().projection.accept(key);
+    }
+
+    @Override
+    public void value(String key, Object value) {
+      stack.peek().populate(key, value);
+    }
+
+    @Override
+    public void startObject(String key) {
+      start(key);
+    }
+
+    @Override
+    public void endObject(String key) {
+      end(key);
+    }
+
+    @Override
+    public void startArray(String key) {
+      start(key);
+    }
+
+    @Override
+    public void endArray(String key) {
+      end(key);
+    }
+
+    private void start(String key) {
+      var currentContext = stack.peek();
+      if (currentContext == null && bean != null) {
+        stack.push(new Context<>(ObjectBuilder.bean(bean.getClass()), bean, projection, true));
+        return;
+      }
+      var type = currentContext == null ? expectedType : currentContext.objectBuilder.typeProvider().apply(key);
+      var childProjection = currentContext == null ? projection : currentContext.projection.child(key);
+      var objectBuilder = findObjectBuilder(type);
+      if (currentContext != null && currentContext.reused) {
+        var existingBean = existingBean(currentContext.result, key);
+        // the bean builder may be wrapped to resolve the generic types, but it shares the supplier
+        if (existingBean != null && objectBuilder.supplier() == ObjectBuilder.bean(existingBean.getClass()).supplier()) {
+          @SuppressWarnings("unchecked")  // the builder is the bean builder of the bean class
+          var beanBuilder = (ObjectBuilder<Object>) objectBuilder;
+          stack.push(new Context<>(beanBuilder, existingBean, childProjection, true));
+          return;
+        }
+      }
+      stack.push(Context.createContext(objectBuilder, childProjection));
+    }
+
+    private static Object existingBean(Object instance, String key) {
+      var getter = BEAN_DATA_CLASS_VALUE.get(instance.getClass()).findProperty(key).descriptor.getReadMethod();
+      return getter == null ? null : Utils.invokeMethod(instance, getter);
+    }
+
+    private void end(String key) {
+      var result = stack.pop().finish();
+      if (stack.isEmpty()) {
+        this.result = result;
+        return;
+      }
+      stack.peek().populate(key, result);
+    }
+  }
+
+  public <T> T parseJSON(String text, TypeReference<T> typeReference, Projection projection) {
+    @SuppressWarnings("unchecked")
+    var result = (T) parseJSON(text, findDecodedType(typeReference), projection);
+    return result;
+  }
+
+  static Type findDecodedType(TypeReference<?> typeReference) {
+    var typeReferenceType = Arrays.stream(typeReference.getClass().getGenericInterfaces())
+        .flatMap(type -> type instanceof ParameterizedType parameterizedType && parameterizedType.getRawType() == TypeReference.class ?
+            Stream.of(parameterizedType) : Stream.empty())
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("invalid TypeReference " + typeReference));
+    return typeReferenceType.getActualTypeArguments()[0];
+  }
 }
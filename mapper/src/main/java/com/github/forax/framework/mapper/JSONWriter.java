@@ -1,7 +1,598 @@
 package com.github.forax.framework.mapper;
 
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
 public final class JSONWriter {
+  private interface Generator {
+    void generate(JSONWriter writer, Object bean, StringBuilder builder);
+  }
+
+  private interface PrettyGenerator {
+    void generate(JSONWriter writer, Object bean, StringBuilder builder, int depth);
+  }
+
+  private record Property(String name, Function<Object, Object> accessor) {
+    Object value(Object bean) {
+      return accessor.apply(bean);
+    }
+  }
+
+  private static final ClassValue<List<Property>> PROPERTIES_CLASS_VALUE = new ClassValue<>() {
+    @Override
+    protected List<Property> computeValue(Class<?> type) {
+      var codec = GeneratedCodecs.codec(type);
+      if (codec != null) {
+        return codecProperties(codec);
+      }
+      return type.isRecord() ? recordProperties(type) : beanProperties(type);
+    }
+  };
+
+  private static final ClassValue<Generator> GENERATOR_CLASS_VALUE = new ClassValue<>() {
+    @Override
+    protected Generator computeValue(Class<?> type) {
+      var appender = BuiltInCodecs.appender(type);
+      if (appender != null) {
+        return (writer, bean, builder) -> appender.append(bean, builder);
+      }
+      if (isContainer(type)) {
+        return (writer, bean, builder) -> writer.appendContainer(bean, builder);
+      }
+      var properties = PROPERTIES_CLASS_VALUE.get(type);
+      // the separator is part of the key, so there is no test in the loop
+      var keys = new String[properties.size()];
+      for (var i = 0; i < keys.length; i++) {
+        keys[i] = (i == 0 ? "\"" : ", \"") + properties.get(i).name + "\": ";
+      }
+      return (writer, bean, builder) -> {
+        builder.append('{');
+        for (var i = 0; i < keys.length; i++) {
+          builder.append(keys[i]);
+          writer.appendJSON(properties.get(i).value(bean), builder);
+        }
+        builder.append('}');
+      };
+    }
+  };
+
+  private static final String INDENT = "  ";
+
+  private static final ClassValue<PrettyGenerator> PRETTY_GENERATOR_CLASS_VALUE = new ClassValue<>() {
+    @Override
+    protected PrettyGenerator computeValue(Class<?> type) {
+      var appender = BuiltInCodecs.appender(type);
+      if (appender != null) {
+        return (writer, bean, builder, depth) -> appender.append(bean, builder);
+      }
+      if (isContainer(type)) {
+        return (writer, bean, builder, depth) -> writer.appendPrettyContainer(bean, builder, depth);
+      }
+      var properties = PROPERTIES_CLASS_VALUE.get(type);
+      if (properties.isEmpty()) {
+        return (writer, bean, builder, depth) -> builder.append("{}");
+      }
+      var keys = new String[properties.size()];
+      for (var i = 0; i < keys.length; i++) {
+        keys[i] = "\"" + properties.get(i).name + "\": ";
+      }
+      return (writer, bean, builder, depth) -> {
+        builder.append('{');
+        for (var i = 0; i < keys.length; i++) {
+          builder.append(i == 0 ? "\n" : ",\n").repeat(INDENT, depth + 1).append(keys[i]);
+          writer.appendPrettyJSON(properties.get(i).value(bean), builder, depth + 1);
+        }
+        builder.append('\n').repeat(INDENT, depth).append('}');
+      };
+    }
+  };
+
+  // the arrays, the iterables and the maps are encoded as JSON arrays and JSON objects
+  private static boolean isContainer(Class<?> type) {
+    return type.isArray() || Iterable.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type);
+  }
+
+  private static Iterable<?> elements(Object container) {
+    if (container instanceof Iterable<?> iterable) {
+      return iterable;
+    }
+    if (container instanceof Object[] array) {
+      return Arrays.asList(array);
+    }
+    // the primitive arrays are boxed element by element
+    return IntStream.range(0, Array.getLength(container)).mapToObj(i -> Array.get(container, i))::iterator;
+  }
+
+  private static List<Property> beanProperties(Class<?> type) {
+    return Arrays.stream(Utils.beanInfo(type).getPropertyDescriptors())
+        .filter(property -> !property.getName().equals("class"))
+        .filter(property -> property.getReadMethod() != null)
+        .map(property -> new Property(propertyName(property), getter(property.getReadMethod())))
+        .toList();
+  }
+
+  private static String propertyName(PropertyDescriptor property) {
+    var annotation = property.getReadMethod().getAnnotation(JSONProperty.class);
+    return annotation != null ? annotation.value() : property.getName();
+  }
+
+  private static List<Property> recordProperties(Class<?> type) {
+    return Arrays.stream(type.getRecordComponents())
+        .map(component -> new Property(componentName(component), getter(component.getAccessor())))
+        .toList();
+  }
+
+  private static String componentName(RecordComponent component) {
+    var annotation = component.getAnnotation(JSONProperty.class);
+    return annotation != null ? annotation.value() : component.getName();
+  }
+
+  private static Function<Object, Object> getter(Method getter) {
+    return bean -> Utils.invokeMethod(bean, getter);
+  }
+
+  private static List<Property> codecProperties(Codec<Object> codec) {
+    var keys = codec.keys();
+    return IntStream.range(0, keys.size())
+        .mapToObj(i -> new Property(keys.get(i), bean -> codec.value(bean, i)))
+        .toList();
+  }
+
+  private final HashMap<Class<?>, Function<Object, String>> configurationMap = new HashMap<>();
+
+  // the configuration of a class, found once by looking up the class and its super types
+  private ClassValue<Function<Object, String>> configurationClassValue = configurationClassValue(Map.of());
+
+  private static ClassValue<Function<Object, String>> configurationClassValue(Map<Class<?>, Function<Object, String>> configurationMap) {
+    return new ClassValue<>() {
+      @Override
+      protected Function<Object, String> computeValue(Class<?> type) {
+        return findConfiguration(configurationMap, type);
+      }
+    };
+  }
+
+  /*
+   * Search the class, then its superclasses, then the interfaces
+   * in breadth first order, the nearest interfaces first.
+   */
+  private static Function<Object, String> findConfiguration(Map<Class<?>, Function<Object, String>> configurationMap, Class<?> type) {
+    if (configurationMap.isEmpty()) {
+      return null;
+    }
+    for (var superclass = type; superclass != null; superclass = superclass.getSuperclass()) {
+      var configuration = configurationMap.get(superclass);
+      if (configuration != null) {
+        return configuration;
+      }
+    }
+    var queue = new ArrayDeque<Class<?>>();
+    var visited = new HashSet<Class<?>>();
+    for (var superclass = type; superclass != null; superclass = superclass.getSuperclass()) {
+      queue.addAll(List.of(superclass.getInterfaces()));
+    }
+    while (!queue.isEmpty()) {
+      var interfaze = queue.poll();
+      if (!visited.add(interfaze)) {
+        continue;
+      }
+      var configuration = configurationMap.get(interfaze);
+      if (configuration != null) {
+        return configuration;
+      }
+      queue.addAll(List.of(interfaze.getInterfaces()));
+    }
+    return null;
+  }
+
+  /**
+   * Configures the JSON text of the instances of a class.
+   * The configuration also applies to the subclasses and, if the type is an interface,
+   * to the implementations, unless they have their own configuration.
+   *
+   * @param type the class or interface to configure.
+   * @param function a function that returns the JSON text of an instance.
+   * @throws IllegalStateException if the type is already configured.
+   */
+  public <T> void configure(Class<T> type, Function<? super T, String> function) {
+    Objects.requireNonNull(type);
+    Objects.requireNonNull(function);
+    var result = configurationMap.putIfAbsent(type, bean -> function.apply(type.cast(bean)));
+    if (result != null) {
+      throw new IllegalStateException("configuration for " + type.getName() + " already exists");
+    }
+    // the configuration of the classes already resolved may have changed
+    configurationClassValue = configurationClassValue(Map.copyOf(configurationMap));
+  }
+
+  private JSONMetrics metrics;
+
+  /**
+   * Records the calls of this writer per root type, the class of the encoded value.
+   * The calls that fail are not recorded.
+   *
+   * @param metrics the metrics or {@code null} to not record the calls.
+   */
+  public void setMetrics(JSONMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  private JSONMetrics.Recording startRecording(Object o) {
+    var metrics = this.metrics;
+    if (metrics == null) {
+      return null;
+    }
+    return metrics.start(JSONMetrics.Operation.WRITE, o == null ? Object.class : o.getClass());
+  }
+
   public String toJSON(Object o) {
-    throw new UnsupportedOperationException("TODO");
+    var recording = startRecording(o);
+    var builder = new StringBuilder();
+    appendJSON(o, builder);
+    if (recording != null) {
+      recording.stop(builder.length());
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Returns the JSON text of an object indented on several lines.
+   * The configured types are inserted as is.
+   *
+   * @param o the object to encode.
+   * @return an indented JSON text.
+   *
+   * @see #toJSON(Object)
+   */
+  public String toPrettyJSON(Object o) {
+    var recording = startRecording(o);
+    var builder = new StringBuilder();
+    appendPrettyJSON(o, builder, 0);
+    if (recording != null) {
+      recording.stop(builder.length());
+    }
+    return builder.toString();
+  }
+
+  private void appendJSON(Object o, StringBuilder builder) {
+    switch (o) {
+      case null -> builder.append("null");
+      case Boolean b -> builder.append((boolean) b);
+      case Integer i -> builder.append((int) i);
+      case Long l -> builder.append((long) l);
+      case Double d -> builder.append((double) d);
+      case Float f -> builder.append((float) f);
+      case String s -> appendString(s, builder);
+      default -> {
+        var type = o.getClass();
+        var configuration = configurationClassValue.get(type);
+        if (configuration != null) {
+          builder.append(configuration.apply(o));
+          return;
+        }
+        GENERATOR_CLASS_VALUE.get(type).generate(this, o, builder);
+      }
+    }
+  }
+
+  private void appendPrettyJSON(Object o, StringBuilder builder, int depth) {
+    switch (o) {
+      case null -> builder.append("null");
+      case Boolean b -> builder.append((boolean) b);
+      case Integer i -> builder.append((int) i);
+      case Long l -> builder.append((long) l);
+      case Double d -> builder.append((double) d);
+      case Float f -> builder.append((float) f);
+      case String s -> appendString(s, builder);
+      default -> {
+        var type = o.getClass();
+        var configuration = configurationClassValue.get(type);
+        if (configuration != null) {
+          builder.append(configuration.apply(o));
+          return;
+        }
+        PRETTY_GENERATOR_CLASS_VALUE.get(type).generate(this, o, builder, depth);
+      }
+    }
+  }
+
+  // escapes the characters that can not appear as is in a JSON string
+  private static void appendString(String s, StringBuilder builder) {
+    builder.append('"');
+    for (var i = 0; i < s.length(); i++) {
+      var c = s.charAt(i);
+      switch (c) {
+        case '"' -> builder.append("\\\"");
+        case '\\' -> builder.append("\\\\");
+        case '\n' -> builder.append("\\n");
+        case '\r' -> builder.append("\\r");
+        case '\t' -> builder.append("\\t");
+        default -> {
+          if (c < 0x20) {
+            builder.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+          } else {
+            builder.append(c);
+          }
+        }
+      }
+    }
+    builder.append('"');
+  }
+
+  private void appendContainer(Object container, StringBuilder builder) {
+    var separator = "";
+    if (container instanceof Map<?, ?> map) {
+      builder.append('{');
+      for (var entry : map.entrySet()) {
+        appendString(String.valueOf(entry.getKey()), builder.append(separator));
+        builder.append(": ");
+        appendJSON(entry.getValue(), builder);
+        separator = ", ";
+      }
+      builder.append('}');
+      return;
+    }
+    builder.append('[');
+    for (var element : elements(container)) {
+      builder.append(separator);
+      appendJSON(element, builder);
+      separator = ", ";
+    }
+    builder.append(']');
+  }
+
+  private void appendPrettyContainer(Object container, StringBuilder builder, int depth) {
+    var separator = "\n";
+    if (container instanceof Map<?, ?> map) {
+      if (map.isEmpty()) {
+        builder.append("{}");
+        return;
+      }
+      builder.append('{');
+      for (var entry : map.entrySet()) {
+        appendString(String.valueOf(entry.getKey()), builder.append(separator).repeat(INDENT, depth + 1));
+        builder.append(": ");
+        appendPrettyJSON(entry.getValue(), builder, depth + 1);
+        separator = ",\n";
+      }
+      builder.append('\n').repeat(INDENT, depth).append('}');
+      return;
+    }
+    var iterator = elements(container).iterator();
+    if (!iterator.hasNext()) {
+      builder.append("[]");
+      return;
+    }
+    builder.append('[');
+    while (iterator.hasNext()) {
+      builder.append(separator).repeat(INDENT, depth + 1);
+      appendPrettyJSON(iterator.next(), builder, depth + 1);
+      separator = ",\n";
+    }
+    builder.append('\n').repeat(INDENT, depth).append(']');
+  }
+
+  // the characters are encoded by chunks of at least that size
+  private static final int CHUNK_SIZE = 8_192;
+
+  /**
+   * Writes the elements as a JSON array into a channel, the elements are encoded one by one
+   * in UTF-8 into a direct buffer of fixed size that is written to the channel when it is full,
+   * so the memory used does not depend on the number of elements.
+   * The channel is not closed.
+   *
+   * @param iterable the elements to write.
+   * @param channel the channel to write to.
+   * @throws IOException if an I/O error occurs.
+   */
+  public void writeJSON(Iterable<?> iterable, WritableByteChannel channel) throws IOException {
+    Objects.requireNonNull(iterable);
+    Objects.requireNonNull(channel);
+    writeJSON(iterable.iterator(), ChannelOutput.of(channel));
+  }
+
+  /**
+   * Writes the elements of a stream as a JSON array into a channel.
+   *
+   * @param stream the elements to write.
+   * @param channel the channel to write to.
+   * @throws IOException if an I/O error occurs.
+   *
+   * @see #writeJSON(Iterable, WritableByteChannel)
+   */
+  public void writeJSON(Stream<?> stream, WritableByteChannel channel) throws IOException {
+    Objects.requireNonNull(stream);
+    Objects.requireNonNull(channel);
+    writeJSON(stream.iterator(), ChannelOutput.of(channel));
+  }
+
+  /**
+   * Writes the elements as a JSON array into a channel using two virtual threads,
+   * one encodes the elements into buffers, the other writes the buffers into the channel.
+   * The number of buffers is bounded, if the channel is slower than the encoding,
+   * the encoding waits for a buffer to be written.
+   * The channel is not closed.
+   *
+   * @param iterable the elements to write, iterated by another thread.
+   * @param channel the channel to write to.
+   * @return a future completed when all the elements are written.
+   *
+   * @see #writeJSON(Iterable, WritableByteChannel)
+   */
+  public CompletableFuture<Void> writeJSONAsync(Iterable<?> iterable, WritableByteChannel channel) {
+    Objects.requireNonNull(iterable);
+    Objects.requireNonNull(channel);
+    return writeJSONAsync(iterable.iterator(), channel);
+  }
+
+  /**
+   * Writes the elements of a stream as a JSON array into a channel using two virtual threads.
+   *
+   * @param stream the elements to write, consumed by another thread.
+   * @param channel the channel to write to.
+   * @return a future completed when all the elements are written.
+   *
+   * @see #writeJSONAsync(Iterable, WritableByteChannel)
+   */
+  public CompletableFuture<Void> writeJSONAsync(Stream<?> stream, WritableByteChannel channel) {
+    Objects.requireNonNull(stream);
+    Objects.requireNonNull(channel);
+    return writeJSONAsync(stream.iterator(), channel);
+  }
+
+  private CompletableFuture<Void> writeJSONAsync(Iterator<?> iterator, WritableByteChannel channel) {
+    var future = new CompletableFuture<Void>();
+    Thread.ofVirtual().name("json-channel-encoder").start(() -> {
+      try {
+        writeJSON(iterator, ChannelOutput.async(channel));
+        future.complete(null);
+      } catch (IOException | RuntimeException | Error e) {
+        future.completeExceptionally(e);
+      }
+    });
+    return future;
+  }
+
+  private void writeJSON(Iterator<?> iterator, ChannelOutput output) throws IOException {
+    var completed = false;
+    try {
+      var builder = new StringBuilder().append('[');
+      var separator = "";
+      while (iterator.hasNext()) {
+        builder.append(separator);
+        appendJSON(iterator.next(), builder);
+        separator = ", ";
+        if (builder.length() >= CHUNK_SIZE) {
+          output.write(builder);
+          builder.setLength(0);
+        }
+      }
+      output.write(builder.append(']'));
+      output.close();
+      completed = true;
+    } finally {
+      if (!completed) {
+        output.abort();
+      }
+    }
+  }
+
+  /**
+   * Encodes a list of beans or records column by column, the keys are written once
+   * followed by an array containing the values of all the elements for that key.
+   * For example, a list of two persons is encoded as {@code {"name": ["Bob", "Ana"], "age": [23, 31]}}.
+   *
+   * @param list a list of non-null elements.
+   * @param elementType the class of the elements that defines the keys.
+   * @return the columnar JSON text.
+   *
+   * @see JSONReader#parseColumnarJSON(String, Class)
+   */
+  public <T> String toColumnarJSON(List<? extends T> list, Class<T> elementType) {
+    Objects.requireNonNull(list);
+    Objects.requireNonNull(elementType);
+    var metrics = this.metrics;
+    var recording = metrics == null ? null : metrics.start(JSONMetrics.Operation.WRITE, elementType);
+    var builder = new StringBuilder().append('{');
+    var separator = "";
+    for (var property : PROPERTIES_CLASS_VALUE.get(elementType)) {
+      builder.append(separator).append('"').append(property.name).append("\": [");
+      var valueSeparator = "";
+      for (var element : list) {
+        builder.append(valueSeparator);
+        appendJSON(property.value(Objects.requireNonNull(element)), builder);
+        valueSeparator = ", ";
+      }
+      builder.append(']');
+      separator = ", ";
+    }
+    builder.append('}');
+    if (recording != null) {
+      recording.stop(builder.length());
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Encodes an object using the binary format of {@link JSONReader#parseBinary(byte[], Class)}.
+   * Beans and records are decomposed using the same properties as {@link #toJSON(Object)},
+   * arrays and iterables are stored as arrays, maps as objects,
+   * the configured types are stored as their JSON text.
+   *
+   * @param o the object to encode.
+   * @return the binary encoding of the object.
+   */
+  public byte[] toBinary(Object o) {
+    var recording = startRecording(o);
+    var encoder = new BinaryJSON.Encoder();
+    writeBinary(o, encoder);
+    var data = encoder.toByteArray();
+    if (recording != null) {
+      recording.stop(data.length);
+    }
+    return data;
+  }
+
+  private void writeBinary(Object o, BinaryJSON.Encoder encoder) {
+    switch (o) {
+      case null -> encoder.writeNull();
+      case Boolean b -> encoder.writeBoolean(b);
+      case Integer i -> encoder.writeLong(i);
+      case Long l -> encoder.writeLong(l);
+      case Double d -> encoder.writeDouble(d);
+      case Float f -> encoder.writeDouble(f);
+      case String s -> encoder.writeString(s);
+      default -> {
+        var type = o.getClass();
+        var configuration = configurationClassValue.get(type);
+        if (configuration != null) {
+          encoder.writeRawJSON(configuration.apply(o));
+          return;
+        }
+        if (BuiltInCodecs.appender(type) != null) {
+          encoder.writeString(BuiltInCodecs.text(o));
+          return;
+        }
+        if (o instanceof Map<?, ?> map) {
+          encoder.startObject();
+          for (var entry : map.entrySet()) {
+            encoder.writeKey(String.valueOf(entry.getKey()));
+            writeBinary(entry.getValue(), encoder);
+          }
+          encoder.endObject();
+          return;
+        }
+        if (isContainer(type)) {
+          encoder.startArray();
+          for (var element : elements(o)) {
+            writeBinary(element, encoder);
+          }
+          encoder.endArray();
+          return;
+        }
+        encoder.startObject();
+        for (var property : PROPERTIES_CLASS_VALUE.get(type)) {
+          encoder.writeKey(property.name);
+          writeBinary(property.value(o), encoder);
+        }
+        encoder.endObject();
+      }
+    }
   }
 }
@@ -0,0 +1,143 @@
+package com.github.forax.framework.mapper;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A bounded cache of the strings decoded by a {@link JSONReader}, so the same string values
+ * and keys repeated in a JSON text share the same {@link String} instance.
+ *
+ * The cache is a direct mapped table indexed by the hash of the characters, a lookup compares
+ * the characters of the text with the cached string, so no string is allocated on a hit.
+ * On a collision, the new string replaces the old one.
+ * The strings longer than {@link #maxLength()} are not cached.
+ *
+ * A cache can be shared between several readers and threads,
+ * the worst that can happen with concurrent updates is a lost entry.
+ *
+ * @see JSONReader#setStringCache(StringCache)
+ */
+public final class StringCache {
+  private final String[] table;
+  private final int maxLength;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * Creates a cache.
+   *
+   * @param capacity the maximum number of strings, rounded to the next power of two.
+   * @param maxLength the maximum length of a cached string.
+   */
+  public StringCache(int capacity, int maxLength) {
+    if (capacity <= 0 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("invalid capacity " + capacity);
+    }
+    if (maxLength < 0) {
+      throw new IllegalArgumentException("invalid max length " + maxLength);
+    }
+    this.table = new String[capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1];
+    this.maxLength = maxLength;
+  }
+
+  /**
+   * Creates a cache of 1024 strings of at most 32 characters.
+   */
+  public StringCache() {
+    this(1_024, 32);
+  }
+
+  public int capacity() {
+    return table.length;
+  }
+
+  public int maxLength() {
+    return maxLength;
+  }
+
+  public long hits() {
+    return hits.sum();
+  }
+
+  public long misses() {
+    return misses.sum();
+  }
+
+  /**
+   * Returns the ratio between the number of hits and the number of lookups.
+   * @return the hit ratio or 0 if there was no lookup.
+   */
+  public double hitRatio() {
+    var hits = this.hits.sum();
+    var lookups = hits + misses.sum();
+    return lookups == 0 ? 0.0 : (double) hits / lookups;
+  }
+
+  @Override
+  public String toString() {
+    return "StringCache{capacity=" + table.length + ", hits=" + hits() + ", misses=" + misses() + "}";
+  }
+
+  /**
+   * Returns the string of the characters between start and end, the cached string if it exists.
+   */
+  String intern(String text, int start, int end) {
+    var length = end - start;
+    if (length > maxLength) {
+      return text.substring(start, end);
+    }
+    var hash = 0;
+    for (var i = start; i < end; i++) {
+      hash = 31 * hash + text.charAt(i);
+    }
+    var index = (hash ^ (hash >>> 16)) & (table.length - 1);
+    var string = table[index];
+    if (string != null && string.length() == length && string.regionMatches(0, text, start, length)) {
+      hits.increment();
+      return string;
+    }
+    misses.increment();
+    string = text.substring(start, end);
+    table[index] = string;
+    return string;
+  }
+
+  /**
+   * Returns the string of the UTF-8 bytes between offset and offset + length,
+   * only the ASCII strings are cached.
+   */
+  String intern(byte[] data, int offset, int length) {
+    if (length > maxLength) {
+      return new String(data, offset, length, UTF_8);
+    }
+    var hash = 0;
+    for (var i = offset; i < offset + length; i++) {
+      var b = data[i];
+      if (b < 0) {  // not ASCII
+        return new String(data, offset, length, UTF_8);
+      }
+      hash = 31 * hash + b;
+    }
+    var index = (hash ^ (hash >>> 16)) & (table.length - 1);
+    var string = table[index];
+    if (string != null && string.length() == length && asciiMatches(string, data, offset)) {
+      hits.increment();
+      return string;
+    }
+    misses.increment();
+    string = new String(data, offset, length, ISO_8859_1);
+    table[index] = string;
+    return string;
+  }
+
+  private static boolean asciiMatches(String string, byte[] data, int offset) {
+    for (var i = 0; i < string.length(); i++) {
+      if (string.charAt(i) != data[offset + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
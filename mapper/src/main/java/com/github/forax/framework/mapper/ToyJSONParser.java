@@ -2,9 +2,9 @@ package com.github.forax.framework.mapper;
 
 import static java.lang.Double.parseDouble;
 import static java.lang.Integer.parseInt;
+import static java.lang.Long.parseLong;
 import static java.util.regex.Pattern.compile;
 import static java.util.stream.Collectors.joining;
-import static java.util.stream.IntStream.rangeClosed;
 import static com.github.forax.framework.mapper.ToyJSONParser.Kind.*;
 
 import java.util.Arrays;
@@ -12,8 +12,9 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
- * A Toy JSON parser that do not recognize correctly, unicode characters, escaped strings
+ * A Toy JSON parser that do not recognize correctly, unicode characters outside the BMP
  * and i'm sure many more features.
+ * The numbers and the strings follow the grammar of the RFC 8259.
  *
  * @see #parse(String, JSONVisitor)
  */
@@ -26,9 +27,9 @@ class ToyJSONParser {
     NULL("(null)"),
     TRUE("(true)"),
     FALSE("(false)"),
-    DOUBLE("([0-9]*\\.[0-9]*)"),
-    INTEGER("([0-9]+)"),
-    STRING("\"([^\\\"]*)\""),
+    DOUBLE("(-?(?:0|[1-9][0-9]*)(?:\\.[0-9]+(?:[eE][+-]?[0-9]+)?|[eE][+-]?[0-9]+))"),
+    INTEGER("(-?(?:0|[1-9][0-9]*))"),
+    STRING("\"((?:[^\"\\\\\\x00-\\x1F]|\\\\(?:[\"\\\\/bfnrt]|u[0-9a-fA-F]{4}))*)\""),
     LEFT_CURLY("(\\{)"),
     RIGHT_CURLY("(\\})"),
     LEFT_BRACKET("(\\[)"),
@@ -60,23 +61,134 @@ class ToyJSONParser {
     }
 
     public IllegalStateException error(Kind... expectedKinds) {
-      return new IllegalStateException("expect " + Arrays.stream(expectedKinds).map(Kind::name).collect(joining(", ")) + " but recognized " + kind + " at " + location);
+      return ToyJSONParser.error(kind, expectedKinds);
     }
   }
 
-  private record Lexer(Matcher matcher) {
+  // the escape sequences have already been checked by the regex of STRING
+  private static String unescape(String input, int start, int end) {
+    var builder = new StringBuilder(end - start);
+    for (var i = start; i < end; i++) {
+      var c = input.charAt(i);
+      if (c != '\\') {
+        builder.append(c);
+        continue;
+      }
+      c = input.charAt(++i);
+      builder.append(switch (c) {
+        case 'b' -> '\b';
+        case 'f' -> '\f';
+        case 'n' -> '\n';
+        case 'r' -> '\r';
+        case 't' -> '\t';
+        case 'u' -> {
+          var unicode = (char) Integer.parseInt(input, i + 1, i + 5, 16);
+          i += 4;
+          yield unicode;
+        }
+        default -> c;  // '"', '\\' or '/'
+      });
+    }
+    return builder.toString();
+  }
+
+  private static IllegalStateException error(Kind kind, Kind... expectedKinds) {
+    return new IllegalStateException("expect " + Arrays.stream(expectedKinds).map(Kind::name).collect(joining(", ")) + " but recognized " + kind);
+  }
+
+  private static final class Lexer {
+    private final Matcher matcher;
+    private final String input;
+    private final StringCache stringCache;
+    private final boolean strict;
+    private int offset;  // start of the last token, the position of an error
+    private int end;     // end of the last token
+    private int maxDepth;  // only used by the scan
+
+    private Lexer(String input, StringCache stringCache, boolean strict) {
+      this.matcher = PATTERN.matcher(input);
+      this.input = input;
+      this.stringCache = stringCache;
+      this.strict = strict;
+    }
+
     private Token next() {
+      var kind = nextKind();
+      var index = kind.ordinal() + 1;
+      if (kind != STRING) {
+        return new Token(kind, matcher.group(index), offset);
+      }
+      var stringEnd = matcher.end(index);
+      String text;
+      if (input.indexOf('\\', offset, stringEnd) == -1) {
+        text = stringCache != null ? stringCache.intern(input, offset, stringEnd) : input.substring(offset, stringEnd);
+      } else {
+        var unescaped = unescape(input, offset, stringEnd);
+        text = stringCache != null ? stringCache.intern(unescaped, 0, unescaped.length()) : unescaped;
+      }
+      return new Token(kind, text, offset);
+    }
+
+    // like next() but without creating a token
+    private Kind nextKind() {
       for(;;) {
         if (!matcher.find()) {
+          checkSkipped(input.length());
+          offset = input.length();
           throw new IllegalStateException("no token recognized");
         }
-        var index = rangeClosed(1, matcher.groupCount()).filter(i -> matcher.group(i) != null).findFirst().orElseThrow();
+        checkSkipped(matcher.start());
+        end = matcher.end();
+        var index = 1;
+        while (matcher.start(index) == -1) {
+          index++;
+        }
         var kind = Kind.VALUES[index - 1];
         if (kind != Kind.BLANK) {
-          return new Token(kind, matcher.group(index), matcher.start(index));
+          offset = matcher.start(index);
+          return kind;
+        }
+      }
+    }
+
+    private void expectKind(Kind kind) {
+      var nextKind = nextKind();
+      if (nextKind != kind) {
+        throw error(nextKind, kind);
+      }
+    }
+
+    // the characters not recognized by the lexer are ignored, unless the lexer is strict
+    private void checkSkipped(int start) {
+      if (!strict) {
+        return;
+      }
+      for (var i = end; i < start; i++) {
+        switch (input.charAt(i)) {
+          case ' ', '\t', '\n', '\r' -> {}
+          default -> {
+            offset = i;
+            throw new IllegalStateException("unexpected character '" + input.charAt(i) + "'");
+          }
         }
       }
     }
+
+    // only blank characters can follow the value, if the lexer is strict
+    private void checkEnd() {
+      if (!strict) {
+        return;
+      }
+      while (matcher.find()) {
+        checkSkipped(matcher.start());
+        end = matcher.end();
+        if (matcher.start(Kind.BLANK.ordinal() + 1) == -1) {
+          offset = matcher.start();
+          throw new IllegalStateException("unexpected text after the end of the value");
+        }
+      }
+      checkSkipped(input.length());
+    }
   }
 
   /**
@@ -123,6 +235,18 @@ class ToyJSONParser {
      * @see #startArray(String)
      */
     void endArray(String key);
+
+    /**
+     * Called during the parsing of an object before the value of a key is parsed.
+     * If the key is not accepted, the value is skipped, the other methods of the visitor
+     * are not called for that value.
+     *
+     * @param key the key of the value inside an object.
+     * @return true if the value should be parsed, false if it should be skipped.
+     */
+    default boolean acceptKey(String key) {
+      return true;
+    }
   }
 
   private static final Pattern PATTERN = compile(Arrays.stream(Kind.VALUES).map(k -> k.regex).collect(joining("|")));
@@ -134,14 +258,139 @@ class ToyJSONParser {
    * @param visitor the visitor to call when parsing the JSON text
    */
   public static void parse(String input, JSONVisitor visitor) {
-    var lexer = new Lexer(PATTERN.matcher(input));
+    parse(input, visitor, null);
+  }
+
+  /**
+   * Parse a JSON text and calls the visitor methods, the keys and the string values
+   * are looked up in the string cache.
+   *
+   * @param input a JSON text
+   * @param visitor the visitor to call when parsing the JSON text
+   * @param stringCache the string cache or {@code null}
+   */
+  static void parse(String input, JSONVisitor visitor, StringCache stringCache) {
+    var lexer = new Lexer(input, stringCache, false);
     try {
       parse(lexer, visitor);
+    } catch(IllegalStateException | NumberFormatException e) {
+      throw parseException(lexer, e);
+    }
+  }
+
+  /**
+   * Checks that a JSON text is well-formed without calling any visitor,
+   * unlike {@link #parse(String, JSONVisitor)}, the characters not recognized
+   * and the text after the value are errors.
+   *
+   * @param input a JSON text
+   * @throws JSONParseException at the first error
+   */
+  static void validate(String input) {
+    scan(input);
+  }
+
+  /**
+   * Checks that a JSON text is well-formed like {@link #validate(String)} and
+   * counts the elements of the top-level array or the members of the top-level object.
+   * The tokens are only recognized, no string nor number is created.
+   *
+   * @param input a JSON text
+   * @return the number of top-level elements and the maximum depth of nesting.
+   * @throws JSONParseException at the first error
+   */
+  static JSONReader.ScanResult scan(String input) {
+    var lexer = new Lexer(input, null, true);
+    try {
+      var kind = lexer.nextKind();
+      var count = switch (kind) {
+        case LEFT_CURLY -> scanObject(lexer, 1);
+        case LEFT_BRACKET -> scanArray(lexer, 1);
+        default -> throw error(kind, LEFT_CURLY, LEFT_BRACKET);
+      };
+      lexer.checkEnd();
+      return new JSONReader.ScanResult(count, lexer.maxDepth);
     } catch(IllegalStateException e) {
-      throw new IllegalStateException(e.getMessage() + "\n while parsing " + input, e);
+      throw parseException(lexer, e);
     }
   }
 
+  private static void scanValue(Kind kind, Lexer lexer, int depth) {
+    switch (kind) {
+      case NULL, FALSE, TRUE, INTEGER, DOUBLE, STRING -> {}
+      case LEFT_CURLY -> scanObject(lexer, depth + 1);
+      case LEFT_BRACKET -> scanArray(lexer, depth + 1);
+      default -> throw error(kind, NULL, FALSE, TRUE, INTEGER, DOUBLE, STRING, LEFT_CURLY, LEFT_BRACKET);
+    }
+  }
+
+  private static int scanObject(Lexer lexer, int depth) {
+    lexer.maxDepth = Math.max(lexer.maxDepth, depth);
+    var kind = lexer.nextKind();
+    if (kind == RIGHT_CURLY) {
+      return 0;
+    }
+    for (var count = 1;; count++) {
+      if (kind != STRING) {
+        throw error(kind, STRING);
+      }
+      lexer.expectKind(COLON);
+      scanValue(lexer.nextKind(), lexer, depth);
+      kind = lexer.nextKind();
+      if (kind == RIGHT_CURLY) {
+        return count;
+      }
+      if (kind != COMMA) {
+        throw error(kind, COMMA, RIGHT_CURLY);
+      }
+      kind = lexer.nextKind();
+    }
+  }
+
+  private static int scanArray(Lexer lexer, int depth) {
+    lexer.maxDepth = Math.max(lexer.maxDepth, depth);
+    var kind = lexer.nextKind();
+    if (kind == RIGHT_BRACKET) {
+      return 0;
+    }
+    for (var count = 1;; count++) {
+      scanValue(kind, lexer, depth);
+      kind = lexer.nextKind();
+      if (kind == RIGHT_BRACKET) {
+        return count;
+      }
+      if (kind != COMMA) {
+        throw error(kind, COMMA, RIGHT_BRACKET);
+      }
+      kind = lexer.nextKind();
+    }
+  }
+
+  /**
+   * Parse a JSON text containing any JSON value, not only an object or an array,
+   * and calls the visitor methods with the key as key of the value.
+   *
+   * @param input a JSON text
+   * @param key the key used to call the visitor
+   * @param visitor the visitor to call when parsing the JSON text
+   */
+  static void parseValue(String input, String key, JSONVisitor visitor) {
+    var lexer = new Lexer(input, null, false);
+    try {
+      parseValue(key, lexer.next(), lexer, visitor);
+    } catch(IllegalStateException | NumberFormatException e) {
+      throw parseException(lexer, e);
+    }
+  }
+
+  // the input is not part of the message, a large input would be copied
+  private static JSONParseException parseException(Lexer lexer, RuntimeException e) {
+    if (e instanceof JSONParseException parseException) {  // from a nested parsing
+      return parseException;
+    }
+    return JSONParseException.of(lexer.input, lexer.offset, e.getMessage(), e);
+  }
+
   private static void parse(Lexer lexer, JSONVisitor visitor) {
     var token = lexer.next();
     switch(token.kind) {
@@ -157,12 +406,21 @@ class ToyJSONParser {
     }
   }
 
+  // an Integer if the value fits in an int, a Long otherwise, like the binary format
+  private static Object parseInteger(String text) {
+    if (text.length() < 10) {  // at most 999_999_999
+      return parseInt(text);
+    }
+    var value = parseLong(text);
+    return value == (int) value ? (Object) (int) value : (Object) value;
+  }
+
   private static void parseValue(String currentKey, Token token, Lexer lexer, JSONVisitor visitor) {
     switch (token.kind) {
       case NULL -> visitor.value(currentKey, null);
       case FALSE -> visitor.value(currentKey, false);
       case TRUE -> visitor.value(currentKey, true);
-      case INTEGER -> visitor.value(currentKey, parseInt(token.text));
+      case INTEGER -> visitor.value(currentKey, parseInteger(token.text));
       case DOUBLE -> visitor.value(currentKey, parseDouble(token.text));
       case STRING -> visitor.value(currentKey, token.text);
       case LEFT_CURLY -> {
@@ -173,7 +431,7 @@ class ToyJSONParser {
         visitor.startArray(currentKey);
         parseArray(currentKey, lexer, visitor);
       }
-      default -> throw token.error(NULL, FALSE, TRUE, INTEGER, DOUBLE, STRING, LEFT_BRACKET, RIGHT_CURLY);
+      default -> throw token.error(NULL, FALSE, TRUE, INTEGER, DOUBLE, STRING, LEFT_BRACKET, LEFT_CURLY);
     }
   }
 
@@ -187,7 +445,11 @@ class ToyJSONParser {
       var key = token.expect(STRING);
       lexer.next().expect(COLON);
       token = lexer.next();
-      parseValue(key, token, lexer, visitor);
+      if (visitor.acceptKey(key)) {
+        parseValue(key, token, lexer, visitor);
+      } else {
+        skipValue(token, lexer);
+      }
       token = lexer.next();
       if (token.is(RIGHT_CURLY)) {
         visitor.endObject(currentKey);
@@ -215,4 +477,32 @@ class ToyJSONParser {
       token = lexer.next();
     }
   }
+
+  private static void skipValue(Token token, Lexer lexer) {
+    switch (token.kind) {
+      case NULL, FALSE, TRUE, INTEGER, DOUBLE, STRING -> {}
+      case LEFT_CURLY -> skipContent(lexer, RIGHT_CURLY);
+      case LEFT_BRACKET -> skipContent(lexer, RIGHT_BRACKET);
+      default -> throw token.error(NULL, FALSE, TRUE, INTEGER, DOUBLE, STRING, LEFT_BRACKET, LEFT_CURLY);
+    }
+  }
+
+  // only the nesting is checked, each closer must match its opener,
+  // the content is not checked nor allocated
+  private static void skipContent(Lexer lexer, Kind closer) {
+    for(;;) {
+      var kind = lexer.nextKind();
+      switch (kind) {
+        case LEFT_CURLY -> skipContent(lexer, RIGHT_CURLY);
+        case LEFT_BRACKET -> skipContent(lexer, RIGHT_BRACKET);
+        case RIGHT_CURLY, RIGHT_BRACKET -> {
+          if (kind != closer) {
+            throw error(kind, closer);
+          }
+          return;
+        }
+        default -> {}
+      }
+    }
+  }
 }
\ No newline at end of file
@@ -83,7 +83,10 @@ final class Utils {
       case ParameterizedType parameterizedType -> erase(parameterizedType.getRawType());
       case GenericArrayType genericArrayType -> erase(genericArrayType.getGenericComponentType()).arrayType();
       case TypeVariable<?> typeVariable -> erase(typeVariable.getBounds()[0]);
-      case WildcardType wildcardType -> erase(wildcardType.getLowerBounds()[0]);
+      case WildcardType wildcardType -> {
+        var lowerBounds = wildcardType.getLowerBounds();
+        yield erase(lowerBounds.length != 0 ? lowerBounds[0] : wildcardType.getUpperBounds()[0]);
+      }
       default -> throw new AssertionError("unknown type " + type.getTypeName());
     };
   }
@@ -0,0 +1,148 @@
+package com.github.forax.framework.mapper;
+
+import com.github.forax.framework.mapper.ToyJSONParser.JSONVisitor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryJSONTest {
+  private static List<String> events(byte[] data) {
+    var events = new ArrayList<String>();
+    BinaryJSON.parse(data, new JSONVisitor() {
+      @Override
+      public void value(String key, Object value) {
+        events.add("value " + key + " " + value);
+      }
+
+      @Override
+      public void startObject(String key) {
+        events.add("startObject " + key);
+      }
+
+      @Override
+      public void endObject(String key) {
+        events.add("endObject " + key);
+      }
+
+      @Override
+      public void startArray(String key) {
+        events.add("startArray " + key);
+      }
+
+      @Override
+      public void endArray(String key) {
+        events.add("endArray " + key);
+      }
+    });
+    return events;
+  }
+
+  @Test
+  public void encodeDecode() {
+    var encoder = new BinaryJSON.Encoder();
+    encoder.startObject();
+    encoder.writeKey("name");
+    encoder.writeString("Bob");
+    encoder.writeKey("age");
+    encoder.writeLong(-42);
+    encoder.writeKey("big");
+    encoder.writeLong(1L << 40);
+    encoder.writeKey("values");
+    encoder.startArray();
+    encoder.writeDouble(4.5);
+    encoder.writeBoolean(true);
+    encoder.writeNull();
+    encoder.writeRawJSON("\"raw\"");
+    encoder.endArray();
+    encoder.endObject();
+    assertEquals(List.of(
+        "startObject null",
+        "value name Bob",
+        "value age -42",
+        "value big 1099511627776",
+        "startArray values",
+        "value null 4.5",
+        "value null true",
+        "value null null",
+        "value null raw",
+        "endArray values",
+        "endObject null"
+    ), events(encoder.toByteArray()));
+  }
+
+  @Test
+  public void keysAreReferenced() {
+    var encoder = new BinaryJSON.Encoder();
+    encoder.startArray();
+    for (var i = 0; i < 100; i++) {
+      encoder.startObject();
+      encoder.writeKey("a-long-key-name");
+      encoder.writeLong(i);
+      encoder.endObject();
+    }
+    encoder.endArray();
+    var data = encoder.toByteArray();
+    assertAll(
+        () -> assertTrue(data.length < 100 * "a-long-key-name".length()),
+        () -> assertEquals("value a-long-key-name 99", events(data).get(299))
+    );
+  }
+
+  @Test
+  public void truncatedData() {
+    var encoder = new BinaryJSON.Encoder();
+    encoder.startObject();
+    encoder.writeKey("name");
+    encoder.writeString("Bob");
+    var data = encoder.toByteArray();
+    assertThrows(IllegalStateException.class, () -> events(data));
+  }
+
+  private static void skipAll(byte[] data) {
+    BinaryJSON.parse(data, new JSONVisitor() {
+      @Override
+      public boolean acceptKey(String key) {
+        return false;
+      }
+
+      @Override
+      public void value(String key, Object value) {}
+
+      @Override
+      public void startObject(String key) {}
+
+      @Override
+      public void endObject(String key) {}
+
+      @Override
+      public void startArray(String key) {}
+
+      @Override
+      public void endArray(String key) {}
+    });
+  }
+
+  @Test
+  public void truncatedSkippedValue() {
+    var encoder = new BinaryJSON.Encoder();
+    encoder.startObject();
+    encoder.writeKey("name");
+    encoder.writeString("hello");
+    encoder.writeKey("score");
+    encoder.writeDouble(4.5);
+    encoder.endObject();
+    var data = encoder.toByteArray();
+    assertAll(
+        () -> skipAll(data),
+        () -> assertThrows(IllegalStateException.class, () -> skipAll(Arrays.copyOf(data, data.length - 4))),
+        () -> assertThrows(IllegalStateException.class, () -> skipAll(Arrays.copyOf(data, data.length - 20)))
+    );
+  }
+}
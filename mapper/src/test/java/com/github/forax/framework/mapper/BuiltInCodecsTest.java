@@ -0,0 +1,146 @@
+package com.github.forax.framework.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.github.forax.framework.mapper.TestReaders.reader;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BuiltInCodecsTest {
+  public enum Status {
+    ACTIVE,
+    SUSPENDED {
+      @Override
+      public String toString() {
+        return "suspended";
+      }
+    }
+  }
+
+  public record Account(Status status, LocalDate created, MonthDay birthday, UUID id,
+                        BigDecimal balance, Duration timeout, ZoneId zone) { }
+
+  private static final Account ACCOUNT = new Account(Status.SUSPENDED, LocalDate.of(2024, 2, 9), MonthDay.of(12, 25),
+      UUID.fromString("3f2504e0-4f89-11d3-9a0c-0305e82c3301"), new BigDecimal("12.50"), Duration.ofSeconds(90), ZoneId.of("Europe/Paris"));
+
+  private static final String JSON = """
+      {"status": "SUSPENDED", "created": "2024-02-09", "birthday": "--12-25", \
+      "id": "3f2504e0-4f89-11d3-9a0c-0305e82c3301", "balance": "12.50", "timeout": "PT1M30S", "zone": "Europe/Paris"}\
+      """;
+
+  @Test
+  public void toJSON() {
+    assertEquals(JSON, new JSONWriter().toJSON(ACCOUNT));
+  }
+
+  @Test
+  public void toJSONLocalDate() {
+    var writer = new JSONWriter();
+    assertAll(
+        () -> assertEquals("\"0001-01-01\"", writer.toJSON(LocalDate.of(1, 1, 1))),
+        () -> assertEquals("\"+10000-01-01\"", writer.toJSON(LocalDate.of(10_000, 1, 1))),
+        () -> assertEquals("\"-0001-12-31\"", writer.toJSON(LocalDate.of(-1, 12, 31)))
+    );
+  }
+
+  @Test
+  public void configurationWins() {
+    var writer = new JSONWriter();
+    writer.configure(LocalDate.class, date -> "" + date.getYear());
+    assertEquals("2024", writer.toJSON(LocalDate.of(2024, 2, 9)));
+  }
+
+  @Test
+  public void parseJSON() {
+    // the scale of the BigDecimal is kept
+    assertEquals(ACCOUNT, reader().parseJSON(JSON, Account.class));
+  }
+
+  public record Amounts(BigDecimal decimal, BigInteger integer) { }
+
+  @Test
+  public void roundTripBigNumbers() {
+    var writer = new JSONWriter();
+    var reader = reader();
+    var amounts = List.of(
+        new Amounts(new BigDecimal("12345678901234567890.123456789"), new BigInteger("123456789012345678901234567890")),
+        new Amounts(new BigDecimal("1E+3"), BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE)),
+        new Amounts(new BigDecimal("-0.000"), BigInteger.valueOf(Long.MIN_VALUE).subtract(BigInteger.ONE)));
+    assertAll(
+        () -> assertEquals("""
+            {"decimal": "1E+3", "integer": "9223372036854775808"}\
+            """, writer.toJSON(amounts.get(1))),
+        () -> assertAll(amounts.stream().map(amount -> () -> {
+          var result = reader.parseJSON(writer.toJSON(amount), Amounts.class);
+          assertEquals(amount, result);
+          assertEquals(amount.decimal().scale(), result.decimal().scale());
+        })),
+        () -> assertEquals(amounts, amounts.stream().map(amount -> reader.parseBinary(writer.toBinary(amount), Amounts.class)).toList())
+    );
+  }
+
+  @Test
+  public void parseJSONBigNumbersFromJSONNumbers() {
+    assertEquals(new Amounts(new BigDecimal("12.5"), new BigInteger("4000000000")),
+        reader().parseJSON("""
+            {"decimal": 12.5, "integer": 4000000000}
+            """, Amounts.class));
+  }
+
+  @Test
+  public void parseJSONUnknownConstant() {
+    assertThrows(IllegalStateException.class, () -> reader().parseJSON("""
+        {"status": "DELETED"}
+        """, Account.class));
+  }
+
+  @Test
+  public void binary() {
+    assertEquals(ACCOUNT, reader().parseBinary(new JSONWriter().toBinary(ACCOUNT), Account.class));
+  }
+
+  public sealed interface Event permits Opened, Closed { }
+  public record Opened(Status status, LocalDate date) implements Event { }
+  public record Closed(LocalDate date) implements Event { }
+
+  public record History(List<Event> events) { }
+
+  @Test
+  public void parseJSONSealed() {
+    var reader = reader();
+    var eventBuilder = JSONReader.ObjectBuilder.sealed(Event.class, "kind", JSONReader.ObjectBuilder::record);
+    reader.addTypeMatcher(type -> type == Event.class ? Optional.of(eventBuilder) : Optional.empty());
+    assertEquals(
+        new History(List.of(new Opened(Status.ACTIVE, LocalDate.of(2024, 2, 9)), new Closed(LocalDate.of(2024, 3, 1)))),
+        reader.parseJSON("""
+            {"events": [
+              {"kind": "Opened", "status": "ACTIVE", "date": "2024-02-09"},
+              {"date": "2024-03-01", "kind": "Closed"}
+            ]}
+            """, History.class));
+  }
+
+  @Test
+  public void parseJSONListAndMap() {
+    var reader = reader();
+    reader.addTypeMatcher(JSONReader.TypeMatcher.maps());
+    assertAll(
+        () -> assertEquals(List.of(LocalDate.of(2024, 2, 9)),
+            reader.parseJSON("[\"2024-02-09\"]", new JSONReader.TypeReference<List<LocalDate>>() {})),
+        () -> assertEquals(Map.of("alice", Status.ACTIVE),
+            reader.parseJSON("{\"alice\": \"ACTIVE\"}", new JSONReader.TypeReference<Map<String, Status>>() {}))
+    );
+  }
+}
@@ -0,0 +1,101 @@
+package com.github.forax.framework.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChannelOutputTest {
+  public record Person(String name, int age) { }
+
+  private static List<Person> persons(int count) {
+    return IntStream.range(0, count).mapToObj(i -> new Person("Zoé" + i, i)).toList();
+  }
+
+  private static String expected(List<Person> persons) {
+    var writer = new JSONWriter();
+    return persons.stream().map(writer::toJSON).collect(Collectors.joining(", ", "[", "]"));
+  }
+
+  @Test
+  public void writeJSON() throws IOException {
+    var persons = persons(2);
+    var output = new ByteArrayOutputStream();
+    new JSONWriter().writeJSON(persons, Channels.newChannel(output));
+    assertEquals("""
+        [{"name": "Zoé0", "age": 0}, {"name": "Zoé1", "age": 1}]\
+        """, output.toString(UTF_8));
+  }
+
+  @Test
+  public void writeJSONEmpty() throws IOException {
+    var output = new ByteArrayOutputStream();
+    new JSONWriter().writeJSON(Stream.empty(), Channels.newChannel(output));
+    assertEquals("[]", output.toString(UTF_8));
+  }
+
+  @Test
+  public void writeJSONSeveralBuffers() throws IOException {
+    var persons = persons(50_000);
+    var output = new ByteArrayOutputStream();
+    new JSONWriter().writeJSON(persons.stream(), Channels.newChannel(output));
+    assertEquals(expected(persons), output.toString(UTF_8));
+  }
+
+  @Test
+  public void writeJSONAsync() throws InterruptedException, ExecutionException {
+    var persons = persons(50_000);
+    var output = new ByteArrayOutputStream();
+    new JSONWriter().writeJSONAsync(persons, Channels.newChannel(output)).get();
+    assertEquals(expected(persons), output.toString(UTF_8));
+  }
+
+  @Test
+  public void writeJSONAsyncFailure() {
+    var channel = new WritableByteChannel() {
+      @Override
+      public int write(ByteBuffer src) throws IOException {
+        throw new IOException("disk full");
+      }
+
+      @Override
+      public boolean isOpen() {
+        return true;
+      }
+
+      @Override
+      public void close() {}
+    };
+    var future = new JSONWriter().writeJSONAsync(persons(50_000).stream(), channel);
+    var exception = assertThrows(ExecutionException.class, future::get);
+    assertAll(
+        () -> assertInstanceOf(IOException.class, exception.getCause()),
+        () -> assertEquals("disk full", exception.getCause().getCause().getMessage())
+    );
+  }
+
+  @Test
+  public void writeJSONPreconditions() {
+    var writer = new JSONWriter();
+    var channel = Channels.newChannel(new ByteArrayOutputStream());
+    assertAll(
+        () -> assertThrows(NullPointerException.class, () -> writer.writeJSON((Iterable<?>) null, channel)),
+        () -> assertThrows(NullPointerException.class, () -> writer.writeJSON(List.of(), null)),
+        () -> assertThrows(NullPointerException.class, () -> writer.writeJSONAsync((Stream<?>) null, channel))
+    );
+  }
+}
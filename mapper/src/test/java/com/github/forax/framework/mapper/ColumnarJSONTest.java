@@ -0,0 +1,87 @@
+package com.github.forax.framework.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.github.forax.framework.mapper.TestReaders.reader;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ColumnarJSONTest {
+  public record Person(String name, int age, LocalDate birthday, BigDecimal salary, List<String> nicknames) { }
+
+  @Test
+  public void toColumnarJSON() {
+    var persons = List.of(
+        new Person("Bob", 23, LocalDate.of(2001, 5, 2), new BigDecimal("10.5"), List.of("bobby")),
+        new Person("Ana", 31, LocalDate.of(1993, 1, 17), new BigDecimal("12"), List.of()));
+    assertEquals("""
+        {"name": ["Bob", "Ana"], "age": [23, 31], "birthday": ["2001-05-02", "1993-01-17"], \
+        "salary": ["10.5", "12"], "nicknames": [["bobby"], []]}\
+        """, new JSONWriter().toColumnarJSON(persons, Person.class));
+  }
+
+  @Test
+  public void roundTrip() {
+    var persons = List.of(
+        new Person("Bob", 23, LocalDate.of(2001, 5, 2), new BigDecimal("10.5"), List.of("bobby")),
+        new Person("Ana", 31, LocalDate.of(1993, 1, 17), new BigDecimal("12"), List.of()));
+    var text = new JSONWriter().toColumnarJSON(persons, Person.class);
+    assertEquals(persons, reader().parseColumnarJSON(text, Person.class));
+  }
+
+  @Test
+  public void roundTripNullCells() {
+    var persons = List.of(
+        new Person(null, 23, null, null, null),
+        new Person("Ana", 31, null, new BigDecimal("12"), Arrays.asList("a", null)));
+    var text = new JSONWriter().toColumnarJSON(persons, Person.class);
+    assertEquals(persons, reader().parseColumnarJSON(text, Person.class));
+  }
+
+  @Test
+  public void roundTripEmpty() {
+    var text = new JSONWriter().toColumnarJSON(List.<Person>of(), Person.class);
+    assertAll(
+        () -> assertEquals("""
+            {"name": [], "age": [], "birthday": [], "salary": [], "nicknames": []}\
+            """, text),
+        () -> assertEquals(List.of(), reader().parseColumnarJSON(text, Person.class)),
+        () -> assertEquals(List.of(), reader().parseColumnarJSON("{}", Person.class))
+    );
+  }
+
+  @Test
+  public void missingColumn() {
+    assertEquals(List.of(new Person("Bob", 0, null, null, null)), reader().parseColumnarJSON("""
+        {"name": ["Bob"]}
+        """, Person.class));
+  }
+
+  @Test
+  public void mismatchedColumns() {
+    var reader = reader();
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> reader.parseColumnarJSON("""
+            {"name": ["Bob", "Ana"], "age": [23]}
+            """, Person.class)),
+        () -> assertThrows(IllegalStateException.class, () -> reader.parseColumnarJSON("""
+            {"name": [], "age": [23]}
+            """, Person.class)),
+        () -> assertThrows(IllegalStateException.class, () -> reader.parseColumnarJSON("""
+            {"name": "Bob"}
+            """, Person.class))
+    );
+  }
+
+  @Test
+  public void nullElement() {
+    var persons = Arrays.asList(new Person("Bob", 23, null, null, null), null);
+    assertThrows(NullPointerException.class, () -> new JSONWriter().toColumnarJSON(persons, Person.class));
+  }
+}
@@ -0,0 +1,201 @@
+package com.github.forax.framework.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toMap;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactMapsTest {
+  @Test
+  public void intValueMap() {
+    var map = new CompactMaps.IntValueMap(0);
+    map.populate("foo", 1);
+    map.populate("bar", 2);
+    map.populate("foo", 3);
+    assertAll(
+        () -> assertEquals(2, map.size()),
+        () -> assertEquals(3, map.get("foo")),
+        () -> assertEquals(2, map.get("bar")),
+        () -> assertNull(map.get("baz")),
+        () -> assertNull(map.get(42)),
+        () -> assertTrue(map.containsValue(3)),
+        () -> assertFalse(map.containsValue(1)),
+        () -> assertEquals(Map.of("foo", 3, "bar", 2), map),
+        () -> assertEquals(List.of("foo", "bar"), new ArrayList<>(map.keySet())),
+        () -> assertThrows(IllegalStateException.class, () -> map.populate("baz", "3")),
+        () -> assertThrows(UnsupportedOperationException.class, () -> map.remove("foo"))
+    );
+  }
+
+  @Test
+  public void longValueMap() {
+    var map = new CompactMaps.LongValueMap(4);
+    map.populate("small", 1);
+    map.populate("big", 10_000_000_000L);
+    assertAll(
+        () -> assertEquals(Map.of("small", 1L, "big", 10_000_000_000L), map),
+        () -> assertTrue(map.containsValue(10_000_000_000L)),
+        () -> assertThrows(IllegalStateException.class, () -> map.populate("double", 1.0))
+    );
+  }
+
+  @Test
+  public void objectValueMapWithNull() {
+    var map = new CompactMaps.ObjectValueMap(0);
+    map.populate("foo", null);
+    assertAll(
+        () -> assertTrue(map.containsKey("foo")),
+        () -> assertNull(map.get("foo")),
+        () -> assertEquals(1, map.entrySet().size())
+    );
+  }
+
+  @Test
+  public void growth() {
+    var map = new CompactMaps.IntValueMap(0);
+    IntStream.range(0, 10_000).forEach(i -> map.populate("key" + i, i));
+    var expected = IntStream.range(0, 10_000).boxed().collect(toMap(i -> "key" + i, i -> i));
+    assertAll(
+        () -> assertEquals(10_000, map.size()),
+        () -> assertEquals(expected, map),
+        () -> assertEquals("key0", map.keySet().iterator().next())
+    );
+  }
+
+  @Test
+  public void invalidExpectedSize() {
+    assertThrows(IllegalArgumentException.class, () -> new CompactMaps.IntValueMap(-1));
+  }
+
+  @Test
+  public void parseJSONMapOfInts() {
+    var reader = new JSONReader();
+    reader.addTypeMatcher(JSONReader.TypeMatcher.maps());
+    var map = reader.parseJSON("""
+        { "one": 1, "two": 2, "three": 3 }
+        """, new JSONReader.TypeReference<Map<String, Integer>>() {});
+    assertAll(
+        () -> assertEquals(Map.of("one", 1, "two", 2, "three", 3), map),
+        () -> assertTrue(map instanceof CompactMaps.IntValueMap)
+    );
+  }
+
+  @Test
+  public void parseJSONMapOfLongs() {
+    var reader = new JSONReader();
+    reader.addTypeMatcher(JSONReader.TypeMatcher.maps());
+    var map = reader.parseJSON("""
+        { "small": 1, "big": 10000000000 }
+        """, new JSONReader.TypeReference<Map<String, Long>>() {});
+    assertAll(
+        () -> assertEquals(Map.of("small", 1L, "big", 10_000_000_000L), map),
+        () -> assertTrue(map instanceof CompactMaps.LongValueMap)
+    );
+  }
+
+  @Test
+  public void parseJSONNestedMaps() {
+    var reader = new JSONReader();
+    reader.addTypeMatcher(JSONReader.TypeMatcher.maps());
+    var map = reader.parseJSON("""
+        { "a": { "x": 1 }, "b": { "y": 2, "z": 3 } }
+        """, new JSONReader.TypeReference<Map<String, Map<String, Integer>>>() {});
+    assertEquals(Map.of("a", Map.of("x", 1), "b", Map.of("y", 2, "z", 3)), map);
+  }
+
+  @Test
+  public void parseJSONPresizedMap() {
+    var reader = new JSONReader();
+    var text = """
+        { "one": 1, "two": 2, "three": 3 }
+        """;
+    var expectedSize = reader.scanJSON(text).elementCount();
+    reader.addTypeMatcher(type -> Optional.of(JSONReader.ObjectBuilder.map(int.class, expectedSize)));
+    assertEquals(Map.of("one", 1, "two", 2, "three", 3), reader.parseJSON(text, Map.class));
+  }
+
+  @Test
+  public void parseJSONMapWrongValue() {
+    var reader = new JSONReader();
+    reader.addTypeMatcher(JSONReader.TypeMatcher.maps());
+    assertThrows(IllegalStateException.class, () -> reader.parseJSON("""
+        { "one": "1" }
+        """, new JSONReader.TypeReference<Map<String, Integer>>() {}));
+  }
+
+  @Test
+  public void mapPrecondition() {
+    assertAll(
+        () -> assertThrows(NullPointerException.class, () -> JSONReader.ObjectBuilder.map(null)),
+        () -> assertThrows(IllegalArgumentException.class, () -> JSONReader.ObjectBuilder.map(int.class, -1))
+    );
+  }
+
+  public static class Counter {
+    private int count;
+    private Long total;
+
+    public int getCount() {
+      return count;
+    }
+    public void setCount(int count) {
+      this.count = count;
+    }
+    public Long getTotal() {
+      return total;
+    }
+    public void setTotal(Long total) {
+      this.total = total;
+    }
+  }
+
+  public record Score(int value, long max) { }
+
+  @Test
+  public void parseJSONIntOutOfRange() {
+    var reader = new JSONReader();
+    reader.addTypeMatcher(type -> Optional.of(Utils.erase(type)).filter(Class::isRecord).map(JSONReader.ObjectBuilder::record));
+    var e1 = assertThrows(JSONParseException.class, () -> reader.parseJSON("""
+        {"count": 3000000000}
+        """, Counter.class));
+    var e2 = assertThrows(JSONParseException.class, () -> reader.parseJSON("""
+        {"max": 1, "value": 4000000000}
+        """, Score.class));
+    assertAll(
+        () -> assertEquals(1, e1.line()),
+        () -> assertEquals(1, e2.line()),
+        () -> assertEquals("value 3000000000 out of range for int", e1.reason()),
+        () -> assertEquals("value 4000000000 out of range for int", e2.reason())
+    );
+  }
+
+  @Test
+  public void parseJSONLongs() {
+    var reader = new JSONReader();
+    reader.addTypeMatcher(type -> Optional.of(Utils.erase(type)).filter(Class::isRecord).map(JSONReader.ObjectBuilder::record));
+    var counter = reader.parseJSON("""
+        {"count": 3, "total": 42}
+        """, Counter.class);
+    assertAll(
+        () -> assertEquals(3, counter.getCount()),
+        () -> assertEquals(42L, counter.getTotal()),
+        () -> assertEquals(new Score(1, 3_000_000_000L), reader.parseJSON("""
+            {"value": 1, "max": 3000000000}
+            """, Score.class)),
+        () -> assertEquals(new Score(1, 2), reader.parseJSON("""
+            {"value": 1, "max": 2}
+            """, Score.class))
+    );
+  }
+}
@@ -0,0 +1,94 @@
+package com.github.forax.framework.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConfigurationTest {
+  public interface Named {
+    String name();
+  }
+  public interface Labeled extends Named { }
+  public interface Colored { }
+
+  public static class Animal implements Named {
+    @Override
+    public String name() {
+      return "animal";
+    }
+  }
+  public static class Dog extends Animal { }
+  public static class Puppy extends Dog implements Colored { }
+  public record Label(String name) implements Labeled { }
+
+  @Test
+  public void superclass() {
+    var writer = new JSONWriter();
+    writer.configure(Animal.class, animal -> "\"an animal\"");
+    assertAll(
+        () -> assertEquals("\"an animal\"", writer.toJSON(new Animal())),
+        () -> assertEquals("\"an animal\"", writer.toJSON(new Dog())),
+        () -> assertEquals("\"an animal\"", writer.toJSON(new Puppy()))
+    );
+  }
+
+  @Test
+  public void interfaces() {
+    var writer = new JSONWriter();
+    writer.configure(Named.class, named -> '"' + named.name() + '"');
+    assertAll(
+        () -> assertEquals("\"animal\"", writer.toJSON(new Dog())),            // interface of a superclass
+        () -> assertEquals("\"label\"", writer.toJSON(new Label("label")))    // superinterface of an interface
+    );
+  }
+
+  @Test
+  public void subtypeWinsOverSupertype() {
+    var writer = new JSONWriter();
+    writer.configure(Animal.class, animal -> "\"an animal\"");
+    writer.configure(Dog.class, dog -> "\"a dog\"");
+    assertAll(
+        () -> assertEquals("\"an animal\"", writer.toJSON(new Animal())),
+        () -> assertEquals("\"a dog\"", writer.toJSON(new Dog())),
+        () -> assertEquals("\"a dog\"", writer.toJSON(new Puppy()))
+    );
+  }
+
+  @Test
+  public void subinterfaceWinsOverSuperinterface() {
+    var writer = new JSONWriter();
+    writer.configure(Named.class, named -> "\"named\"");
+    writer.configure(Labeled.class, labeled -> "\"labeled\"");
+    assertEquals("\"labeled\"", writer.toJSON(new Label("label")));
+  }
+
+  @Test
+  public void classWinsOverInterface() {
+    var writer = new JSONWriter();
+    writer.configure(Colored.class, colored -> "\"colored\"");
+    writer.configure(Animal.class, animal -> "\"an animal\"");
+    assertEquals("\"an animal\"", writer.toJSON(new Puppy()));
+  }
+
+  @Test
+  public void configurationAfterUse() {
+    var writer = new JSONWriter();
+    writer.configure(Animal.class, animal -> "\"an animal\"");
+    assertEquals("\"an animal\"", writer.toJSON(new Dog()));
+    writer.configure(Dog.class, dog -> "\"a dog\"");
+    assertEquals("\"a dog\"", writer.toJSON(new Dog()));
+  }
+
+  @Test
+  public void configurationIsPerWriter() {
+    var writer = new JSONWriter();
+    writer.configure(Animal.class, animal -> "\"an animal\"");
+    assertAll(
+        () -> assertEquals("[\"an animal\"]", writer.toJSON(List.of(new Dog()))),
+        () -> assertEquals("{}", new JSONWriter().toJSON(new Dog()))
+    );
+  }
+}
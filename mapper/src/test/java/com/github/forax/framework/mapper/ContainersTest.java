@@ -0,0 +1,113 @@
+package com.github.forax.framework.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ContainersTest {
+  public record Post(String title, List<String> tags, Map<String, Integer> votes) { }
+
+  private static final Post POST = new Post("hello", List.of("a", "b"), map("up", 3, "down", 1));
+
+  private static Map<String, Integer> map(String key1, int value1, String key2, int value2) {
+    var map = new LinkedHashMap<String, Integer>();
+    map.put(key1, value1);
+    map.put(key2, value2);
+    return map;
+  }
+
+  private static JSONReader reader() {
+    var reader = TestReaders.reader();
+    reader.addTypeMatcher(JSONReader.TypeMatcher.maps());
+    return reader;
+  }
+
+  @Test
+  public void toJSON() {
+    var writer = new JSONWriter();
+    assertAll(
+        () -> assertEquals("""
+            {"title": "hello", "tags": ["a", "b"], "votes": {"up": 3, "down": 1}}\
+            """, writer.toJSON(POST)),
+        () -> assertEquals("[]", writer.toJSON(List.of())),
+        () -> assertEquals("{}", writer.toJSON(Map.of())),
+        () -> assertEquals("[1, 2]", writer.toJSON(new ArrayDeque<>(List.of(1, 2)))),
+        () -> assertEquals("[\"x\"]", writer.toJSON(Set.of("x"))),
+        () -> assertEquals("[1, 2, 3]", writer.toJSON(new int[] { 1, 2, 3 })),
+        () -> assertEquals("[\"a\", null]", writer.toJSON(new String[] { "a", null })),
+        () -> assertEquals("[[1], []]", writer.toJSON(new long[][] { { 1 }, { } }))
+    );
+  }
+
+  @Test
+  public void toPrettyJSON() {
+    var writer = new JSONWriter();
+    assertAll(
+        () -> assertEquals("""
+            {
+              "title": "hello",
+              "tags": [
+                "a",
+                "b"
+              ],
+              "votes": {
+                "up": 3,
+                "down": 1
+              }
+            }""", writer.toPrettyJSON(POST)),
+        () -> assertEquals("""
+            {
+              "title": "empty",
+              "tags": [],
+              "votes": {}
+            }""", writer.toPrettyJSON(new Post("empty", List.of(), Map.of()))),
+        () -> assertEquals("""
+            [
+              1.5,
+              2.0
+            ]""", writer.toPrettyJSON(new double[] { 1.5, 2.0 }))
+    );
+  }
+
+  @Test
+  public void roundTrip() {
+    var writer = new JSONWriter();
+    var reader = reader();
+    var empty = new Post("empty", List.of(), Map.of());
+    assertAll(
+        () -> assertEquals(POST, reader.parseJSON(writer.toJSON(POST), Post.class)),
+        () -> assertEquals(POST, reader.parseJSON(writer.toPrettyJSON(POST), Post.class)),
+        () -> assertEquals(POST, reader.parseBinary(writer.toBinary(POST), Post.class)),
+        () -> assertEquals(empty, reader.parseJSON(writer.toJSON(empty), Post.class)),
+        () -> assertEquals(empty, reader.parseJSON(writer.toPrettyJSON(empty), Post.class)),
+        () -> assertEquals(empty, reader.parseBinary(writer.toBinary(empty), Post.class))
+    );
+  }
+
+  @Test
+  public void roundTripArray() {
+    var writer = new JSONWriter();
+    var reader = reader();
+    var type = Codec.type(new JSONReader.TypeReference<List<Integer>>() {});
+    assertAll(
+        () -> assertEquals(List.of(1, 2, 3), reader.parseJSON(writer.toJSON(new int[] { 1, 2, 3 }), type)),
+        () -> assertEquals(List.of(1, 2, 3), reader.parseJSON(writer.toPrettyJSON(new Integer[] { 1, 2, 3 }), type)),
+        () -> assertEquals(List.of(1, 2, 3), reader.parseBinary(writer.toBinary(new int[] { 1, 2, 3 }), type)),
+        () -> assertEquals(List.of(), reader.parseBinary(writer.toBinary(new int[0]), type))
+    );
+  }
+
+  @Test
+  public void configurationWins() {
+    var writer = new JSONWriter();
+    writer.configure(List.class, list -> "" + list.size());
+    assertEquals("2", writer.toJSON(List.of("a", "b")));
+  }
+}
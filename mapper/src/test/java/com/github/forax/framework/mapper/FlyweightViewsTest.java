@@ -0,0 +1,157 @@
+package com.github.forax.framework.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.RandomAccess;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlyweightViewsTest {
+  public interface Trade {
+    String symbol();
+    int quantity();
+    double price();
+    boolean buy();
+    @JSONProperty("trade_id")
+    long id();
+
+    default double amount() {
+      return quantity() * price();
+    }
+  }
+
+  @Test
+  public void parseFlyweightJSON() {
+    var reader = new JSONReader();
+    var trades = reader.parseFlyweightJSON("""
+        [
+          { "trade_id": 1000000, "symbol": "ACME", "quantity": 3, "price": 2.5, "buy": true },
+          { "trade_id": 2, "symbol": "Frisbee", "quantity": 10, "price": 4, "buy": false, "ignored": { "a": [1] } }
+        ]
+        """, Trade.class);
+    assertAll(
+        () -> assertEquals(2, trades.size()),
+        () -> assertTrue(trades instanceof RandomAccess),
+        () -> assertEquals(1_000_000L, trades.get(0).id()),
+        () -> assertEquals("ACME", trades.get(0).symbol()),
+        () -> assertEquals(3, trades.get(0).quantity()),
+        () -> assertEquals(2.5, trades.get(0).price()),
+        () -> assertTrue(trades.get(0).buy()),
+        () -> assertEquals(7.5, trades.get(0).amount()),
+        () -> assertEquals(2L, trades.get(1).id()),
+        () -> assertEquals("Frisbee", trades.get(1).symbol()),
+        () -> assertEquals(40.0, trades.get(1).amount())
+    );
+  }
+
+  @Test
+  public void parseFlyweightJSONMissingKeys() {
+    var reader = new JSONReader();
+    var trades = reader.parseFlyweightJSON("""
+        [ { "quantity": 1 } ]
+        """, Trade.class);
+    assertAll(
+        () -> assertNull(trades.get(0).symbol()),
+        () -> assertEquals(0.0, trades.get(0).price()),
+        () -> assertEquals(1, trades.get(0).quantity())
+    );
+  }
+
+  @Test
+  public void parseFlyweightJSONNegativeNumbersAndEscapedStrings() {
+    var reader = new JSONReader();
+    var trades = reader.parseFlyweightJSON("""
+        [ { "symbol": "\\"ACME\\"", "quantity": -3, "price": -2.5e1 } ]
+        """, Trade.class);
+    assertAll(
+        () -> assertEquals("\"ACME\"", trades.get(0).symbol()),
+        () -> assertEquals(-3, trades.get(0).quantity()),
+        () -> assertEquals(-25.0, trades.get(0).price())
+    );
+  }
+
+  @Test
+  public void parseFlyweightJSONEmpty() {
+    var reader = new JSONReader();
+    assertEquals(List.of(), reader.parseFlyweightJSON("[]", Trade.class));
+  }
+
+  @Test
+  public void parseFlyweightJSONUTF8() {
+    var reader = new JSONReader();
+    var trades = reader.parseFlyweightJSON("""
+        [ { "symbol": "été" }, { "symbol": "" } ]
+        """, Trade.class);
+    assertAll(
+        () -> assertEquals("été", trades.get(0).symbol()),
+        () -> assertEquals("", trades.get(1).symbol())
+    );
+  }
+
+  @Test
+  public void parseFlyweightJSONObjectMethods() {
+    var reader = new JSONReader();
+    var trades = reader.parseFlyweightJSON("""
+        [ { "trade_id": 1, "symbol": "A" }, { "trade_id": 1, "symbol": "A" } ]
+        """, Trade.class);
+    assertAll(
+        () -> assertEquals(trades.get(0), trades.get(0)),
+        () -> assertEquals(trades.get(0).hashCode(), trades.get(0).hashCode()),
+        () -> assertNotEquals(trades.get(0), trades.get(1)),
+        () -> assertEquals("Trade[price=0.0, trade_id=1, quantity=0, symbol=A, buy=false]", trades.get(0).toString())
+    );
+  }
+
+  @Test
+  public void parseFlyweightJSONUnmodifiable() {
+    var reader = new JSONReader();
+    var trades = reader.parseFlyweightJSON("[ { \"quantity\": 1 } ]", Trade.class);
+    assertThrows(UnsupportedOperationException.class, () -> trades.remove(0));
+  }
+
+  @Test
+  public void parseFlyweightJSONIndexOutOfBounds() {
+    var reader = new JSONReader();
+    var trades = reader.parseFlyweightJSON("[ { \"quantity\": 1 } ]", Trade.class);
+    assertThrows(IndexOutOfBoundsException.class, () -> trades.get(1));
+  }
+
+  @Test
+  public void parseFlyweightJSONNotAnArrayOfObjects() {
+    var reader = new JSONReader();
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> reader.parseFlyweightJSON("{ \"quantity\": 1 }", Trade.class)),
+        () -> assertThrows(IllegalStateException.class, () -> reader.parseFlyweightJSON("[ 1, 2 ]", Trade.class)),
+        () -> assertThrows(IllegalStateException.class, () -> reader.parseFlyweightJSON("[ { \"quantity\": \"1\" } ]", Trade.class))
+    );
+  }
+
+  public interface Point {
+    int x();
+    char tag();
+  }
+
+  @Test
+  public void parseFlyweightJSONUnsupported() {
+    var reader = new JSONReader();
+    assertAll(
+        () -> assertThrows(IllegalArgumentException.class, () -> reader.parseFlyweightJSON("[]", Point.class)),
+        () -> assertThrows(IllegalArgumentException.class, () -> reader.parseFlyweightJSON("[]", String.class))
+    );
+  }
+
+  @Test
+  public void parseFlyweightJSONPrecondition() {
+    var reader = new JSONReader();
+    assertAll(
+        () -> assertThrows(NullPointerException.class, () -> reader.parseFlyweightJSON(null, Trade.class)),
+        () -> assertThrows(NullPointerException.class, () -> reader.parseFlyweightJSON("[]", null))
+    );
+  }
+}
@@ -0,0 +1,139 @@
+package com.github.forax.framework.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class GenericTypesTest {
+  private static Type typeOf(JSONReader.TypeReference<?> typeReference) {
+    return JSONReader.findDecodedType(typeReference);
+  }
+
+  private static JSONReader.TypeMatcher listTypeMatcher() {
+    return type -> Optional.of(type)
+        .flatMap(t -> t instanceof ParameterizedType parameterizedType? Optional.of(parameterizedType): Optional.empty())
+        .filter(t -> t.getRawType() == List.class)
+        .map(t -> JSONReader.ObjectBuilder.list(t.getActualTypeArguments()[0]));
+  }
+
+  public static class Page<T> {
+    private int number;
+    private List<T> items;
+
+    public int getNumber() {
+      return number;
+    }
+    public void setNumber(int number) {
+      this.number = number;
+    }
+    public List<T> getItems() {
+      return items;
+    }
+    public void setItems(List<T> items) {
+      this.items = items;
+    }
+  }
+
+  public static class Item {
+    private String name;
+
+    public String getName() {
+      return name;
+    }
+    public void setName(String name) {
+      this.name = name;
+    }
+  }
+
+  public static class ItemPage extends Page<Item> { }
+
+  public record Box<T>(T value, T[] values) { }
+
+  @Test
+  public void resolve() {
+    var bindings = GenericTypes.bindings(typeOf(new JSONReader.TypeReference<Page<Item>>() {}));
+    var itemsType = Page.class.getTypeParameters()[0];
+    assertAll(
+        () -> assertEquals(Map.of(itemsType, Item.class), bindings),
+        () -> assertEquals(Item[].class, GenericTypes.resolve(Box.class.getRecordComponents()[1].getGenericType(),
+            Map.of(Box.class.getTypeParameters()[0], Item.class))),
+        () -> assertSame(String.class, GenericTypes.resolve(String.class, bindings))
+    );
+  }
+
+  @Test
+  public void resolveHashCode() throws NoSuchMethodException {
+    var bindings = GenericTypes.bindings(typeOf(new JSONReader.TypeReference<Page<Item>>() {}));
+    var resolved = GenericTypes.resolve(Page.class.getMethod("getItems").getGenericReturnType(), bindings);
+    var expected = typeOf(new JSONReader.TypeReference<List<Item>>() {});
+    assertAll(
+        () -> assertEquals(expected, resolved),
+        () -> assertEquals(resolved, expected),
+        () -> assertEquals(expected.hashCode(), resolved.hashCode()),
+        () -> assertEquals("java.util.List<" + Item.class.getName() + ">", resolved.getTypeName())
+    );
+  }
+
+  @Test
+  public void bindingsOfSubclass() {
+    assertEquals(Map.of(Page.class.getTypeParameters()[0], Item.class), GenericTypes.bindings(ItemPage.class));
+  }
+
+  @Test
+  public void bindingsOfNonGenericClass() {
+    assertEquals(Map.of(), GenericTypes.bindings(Item.class));
+  }
+
+  @Test
+  public void resolveWildcard() {
+    var wildcard = ((ParameterizedType) typeOf(new JSONReader.TypeReference<List<? extends Item>>() {})).getActualTypeArguments()[0];
+    assertAll(
+        () -> assertEquals(Item.class, GenericTypes.resolve(wildcard, Map.of())),
+        () -> assertEquals(Item.class, Utils.erase(wildcard))
+    );
+  }
+
+  @Test
+  public void parseJSONGenericBean() {
+    var reader = new JSONReader();
+    reader.addTypeMatcher(listTypeMatcher());
+    var page = reader.parseJSON("""
+        { "number": 3, "items": [ { "name": "foo" }, { "name": "bar" } ] }
+        """, new JSONReader.TypeReference<Page<Item>>() {});
+    assertAll(
+        () -> assertEquals(3, page.getNumber()),
+        () -> assertEquals(List.of("foo", "bar"), page.getItems().stream().map(Item::getName).toList())
+    );
+  }
+
+  @Test
+  public void parseJSONGenericSuperclass() {
+    var reader = new JSONReader();
+    reader.addTypeMatcher(listTypeMatcher());
+    var page = reader.parseJSON("""
+        { "items": [ { "name": "foo" } ] }
+        """, ItemPage.class);
+    assertEquals("foo", page.getItems().getFirst().getName());
+  }
+
+  @Test
+  public void parseJSONGenericRecord() {
+    var reader = new JSONReader();
+    reader.addTypeMatcher(type -> Optional.of(Utils.erase(type))
+        .filter(Class::isRecord)
+        .map(JSONReader.ObjectBuilder::record));
+    var box = reader.parseJSON("""
+        { "value": "2024-02-29" }
+        """, new JSONReader.TypeReference<Box<LocalDate>>() {});
+    assertEquals(LocalDate.of(2024, 2, 29), box.value());
+  }
+}
@@ -0,0 +1,156 @@
+package com.github.forax.framework.mapper;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JSONMetricsTest {
+  public record Point(int x, int y) { }
+
+  private static JSONReader.TypeMatcher recordTypeMatcher() {
+    return type -> Optional.of(Utils.erase(type))
+        .filter(Class::isRecord)
+        .map(JSONReader.ObjectBuilder::record);
+  }
+
+  private static JSONMetrics.TypeMetrics find(JSONMetrics metrics, Class<?> type, JSONMetrics.Operation operation) {
+    return metrics.snapshot().stream()
+        .filter(typeMetrics -> typeMetrics.type() == type && typeMetrics.operation() == operation)
+        .findFirst()
+        .orElseThrow();
+  }
+
+  @Test
+  public void metricsOfWriter() {
+    var metrics = new JSONMetrics();
+    var writer = new JSONWriter();
+    writer.setMetrics(metrics);
+    var json = writer.toJSON(new Point(1, 2));
+    writer.toJSON(new Point(3, 4));
+    var pointMetrics = find(metrics, Point.class, JSONMetrics.Operation.WRITE);
+    assertAll(
+        () -> assertEquals(2, pointMetrics.count()),
+        () -> assertEquals(2L * json.length(), pointMetrics.size()),
+        () -> assertEquals(2, Arrays.stream(pointMetrics.histogram()).sum()),
+        () -> assertTrue(pointMetrics.totalNanos() >= 0),
+        () -> assertTrue(pointMetrics.allocatedBytes() >= 0)
+    );
+  }
+
+  @Test
+  public void metricsOfReader() {
+    var metrics = new JSONMetrics();
+    var reader = new JSONReader();
+    reader.addTypeMatcher(recordTypeMatcher());
+    reader.setMetrics(metrics);
+    var text = """
+        { "x": 1, "y": 2 }
+        """;
+    reader.parseJSON(text, Point.class);
+    var pointMetrics = find(metrics, Point.class, JSONMetrics.Operation.READ);
+    assertAll(
+        () -> assertEquals(1, pointMetrics.count()),
+        () -> assertEquals(text.length(), pointMetrics.size()),
+        () -> assertEquals(1, metrics.snapshot().size())
+    );
+  }
+
+  @Test
+  public void metricsOfBinary() {
+    var metrics = new JSONMetrics();
+    var writer = new JSONWriter();
+    var reader = new JSONReader();
+    reader.addTypeMatcher(recordTypeMatcher());
+    writer.setMetrics(metrics);
+    reader.setMetrics(metrics);
+    var data = writer.toBinary(new Point(1, 2));
+    reader.parseBinary(data, Point.class);
+    assertAll(
+        () -> assertEquals(data.length, find(metrics, Point.class, JSONMetrics.Operation.WRITE).size()),
+        () -> assertEquals(data.length, find(metrics, Point.class, JSONMetrics.Operation.READ).size())
+    );
+  }
+
+  @Test
+  public void metricsDisabled() {
+    var metrics = new JSONMetrics();
+    var writer = new JSONWriter();
+    writer.setMetrics(metrics);
+    writer.setMetrics(null);
+    writer.toJSON(new Point(1, 2));
+    assertEquals(List.of(), metrics.snapshot());
+  }
+
+  @Test
+  public void metricsReset() {
+    var metrics = new JSONMetrics();
+    var writer = new JSONWriter();
+    writer.setMetrics(metrics);
+    writer.toJSON(new Point(1, 2));
+    metrics.reset();
+    assertEquals(List.of(), metrics.snapshot());
+  }
+
+  @Test
+  public void metricsFailedCallsAreNotRecorded() {
+    var metrics = new JSONMetrics();
+    var reader = new JSONReader();
+    reader.addTypeMatcher(recordTypeMatcher());
+    reader.setMetrics(metrics);
+    assertThrows(IllegalStateException.class, () -> reader.parseJSON("{ \"x\": ", Point.class));
+    assertEquals(List.of(), metrics.snapshot());
+  }
+
+  @Test
+  public void percentileNanos() {
+    var histogram = new long[JSONMetrics.BUCKET_COUNT];
+    histogram[3] = 9;   // between 8 and 16 ns
+    histogram[10] = 1;  // between 1024 and 2048 ns
+    var typeMetrics = new JSONMetrics.TypeMetrics(Point.class, JSONMetrics.Operation.READ, 10, 0, 0, 0, histogram);
+    assertAll(
+        () -> assertEquals(16, typeMetrics.percentileNanos(50)),
+        () -> assertEquals(16, typeMetrics.percentileNanos(90)),
+        () -> assertEquals(2048, typeMetrics.percentileNanos(99)),
+        () -> assertEquals(2048, typeMetrics.percentileNanos(100)),
+        () -> assertThrows(IllegalArgumentException.class, () -> typeMetrics.percentileNanos(101))
+    );
+  }
+
+  @Test
+  public void jfrEvents() throws IOException {
+    var metrics = new JSONMetrics();
+    var writer = new JSONWriter();
+    writer.setMetrics(metrics);
+    var file = Files.createTempFile("json-metrics", ".jfr");
+    try {
+      try (var recording = new Recording()) {
+        recording.enable("com.github.forax.framework.mapper.JSON").withoutThreshold();
+        recording.start();
+        writer.toJSON(new Point(1, 2));
+        recording.stop();
+        recording.dump(file);
+      }
+      var events = RecordingFile.readAllEvents(file).stream()
+          .filter(event -> event.getEventType().getName().equals("com.github.forax.framework.mapper.JSON"))
+          .toList();
+      assertAll(
+          () -> assertEquals(1, events.size()),
+          () -> assertEquals("WRITE", events.getFirst().getString("operation")),
+          () -> assertEquals(Point.class.getName(), events.getFirst().getClass("type").getName())
+      );
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
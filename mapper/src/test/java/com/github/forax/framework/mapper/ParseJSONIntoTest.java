@@ -0,0 +1,125 @@
+package com.github.forax.framework.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParseJSONIntoTest {
+  public static class Price {
+    private double bid;
+    private double ask;
+
+    public double getBid() {
+      return bid;
+    }
+    public void setBid(double bid) {
+      this.bid = bid;
+    }
+    public double getAsk() {
+      return ask;
+    }
+    public void setAsk(double ask) {
+      this.ask = ask;
+    }
+  }
+
+  public static class Quote {
+    private String symbol;
+    private int volume;
+    private Price price = new Price();
+
+    public String getSymbol() {
+      return symbol;
+    }
+    public void setSymbol(String symbol) {
+      this.symbol = symbol;
+    }
+    public int getVolume() {
+      return volume;
+    }
+    public void setVolume(int volume) {
+      this.volume = volume;
+    }
+    public Price getPrice() {
+      return price;
+    }
+    public void setPrice(Price price) {
+      this.price = price;
+    }
+  }
+
+  @Test
+  public void parseJSONInto() {
+    var reader = new JSONReader();
+    var quote = new Quote();
+    var price = quote.getPrice();
+    var result = reader.parseJSONInto("""
+        {"symbol": "ACME", "volume": 100, "price": {"bid": 1.5, "ask": 2.5}}
+        """, quote);
+    assertAll(
+        () -> assertSame(quote, result),
+        () -> assertSame(price, quote.getPrice()),
+        () -> assertEquals("ACME", quote.getSymbol()),
+        () -> assertEquals(100, quote.getVolume()),
+        () -> assertEquals(1.5, price.getBid()),
+        () -> assertEquals(2.5, price.getAsk())
+    );
+  }
+
+  @Test
+  public void parseJSONIntoKeepsMissingProperties() {
+    var reader = new JSONReader();
+    var quote = new Quote();
+    reader.parseJSONInto("""
+        {"symbol": "ACME", "volume": 100, "price": {"bid": 1.5, "ask": 2.5}}
+        """, quote);
+    reader.parseJSONInto("""
+        {"volume": 200, "price": {"ask": 3.5}}
+        """, quote);
+    assertAll(
+        () -> assertEquals("ACME", quote.getSymbol()),
+        () -> assertEquals(200, quote.getVolume()),
+        () -> assertEquals(1.5, quote.getPrice().getBid()),
+        () -> assertEquals(3.5, quote.getPrice().getAsk())
+    );
+  }
+
+  @Test
+  public void parseJSONIntoNullNestedBean() {
+    var reader = new JSONReader();
+    var quote = new Quote();
+    quote.setPrice(null);
+    reader.parseJSONInto("""
+        {"price": {"bid": 1.5}}
+        """, quote);
+    assertEquals(1.5, quote.getPrice().getBid());
+  }
+
+  public record Point(int x, int y) { }
+
+  @Test
+  public void parseJSONIntoPreconditions() {
+    var reader = new JSONReader();
+    assertAll(
+        () -> assertThrows(NullPointerException.class, () -> reader.parseJSONInto(null, new Quote())),
+        () -> assertThrows(NullPointerException.class, () -> reader.parseJSONInto("{}", null)),
+        () -> assertThrows(IllegalArgumentException.class, () -> reader.parseJSONInto("{}", new Point(1, 2)))
+    );
+  }
+
+  @Test
+  public void objectBuildersAreCached() {
+    var reader = new JSONReader();
+    reader.addTypeMatcher(type -> Optional.of(Utils.erase(type)).filter(Class::isRecord).map(JSONReader.ObjectBuilder::record));
+    assertAll(
+        () -> assertSame(JSONReader.ObjectBuilder.bean(Quote.class), JSONReader.ObjectBuilder.bean(Quote.class)),
+        () -> assertSame(JSONReader.ObjectBuilder.record(Point.class), JSONReader.ObjectBuilder.record(Point.class)),
+        () -> assertSame(reader.findObjectBuilder(Point.class), reader.findObjectBuilder(Point.class))
+    );
+  }
+}
@@ -0,0 +1,102 @@
+package com.github.forax.framework.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PrettyJSONTest {
+  public record Empty() { }
+  public record Point(int x, int y) { }
+  public record Line(Point start, Point end) { }
+  public record Shape(String name, Line line, Empty tag) { }
+  public record Event(String name, LocalDate date, Point location) { }
+
+  public static class Bean {
+    public String getName() {
+      return "bean";
+    }
+    public Empty getEmpty() {
+      return new Empty();
+    }
+  }
+
+  @Test
+  public void scalars() {
+    var writer = new JSONWriter();
+    assertAll(
+        () -> assertEquals("null", writer.toPrettyJSON(null)),
+        () -> assertEquals("true", writer.toPrettyJSON(true)),
+        () -> assertEquals("42", writer.toPrettyJSON(42)),
+        () -> assertEquals("\"text\"", writer.toPrettyJSON("text")),
+        () -> assertEquals("\"a\\\"b\\\\c\\n\\u0001\"", writer.toPrettyJSON("a\"b\\c\n\u0001"))
+    );
+  }
+
+  @Test
+  public void emptyObject() {
+    var writer = new JSONWriter();
+    assertAll(
+        () -> assertEquals("{}", writer.toPrettyJSON(new Empty())),
+        () -> assertEquals("""
+            {
+              "empty": {},
+              "name": "bean"
+            }""", writer.toPrettyJSON(new Bean()))
+    );
+  }
+
+  @Test
+  public void flatObject() {
+    assertEquals("""
+        {
+          "x": 1,
+          "y": 2
+        }""", new JSONWriter().toPrettyJSON(new Point(1, 2)));
+  }
+
+  @Test
+  public void nestedObjects() {
+    assertEquals("""
+        {
+          "name": "segment",
+          "line": {
+            "start": {
+              "x": 1,
+              "y": 2
+            },
+            "end": {
+              "x": 3,
+              "y": 4
+            }
+          },
+          "tag": {}
+        }""", new JSONWriter().toPrettyJSON(new Shape("segment", new Line(new Point(1, 2), new Point(3, 4)), new Empty())));
+  }
+
+  @Test
+  public void nullNestedObject() {
+    assertEquals("""
+        {
+          "start": null,
+          "end": {
+            "x": 3,
+            "y": 4
+          }
+        }""", new JSONWriter().toPrettyJSON(new Line(null, new Point(3, 4))));
+  }
+
+  @Test
+  public void builtInAndConfiguredTypesAreInsertedAsIs() {
+    var writer = new JSONWriter();
+    writer.configure(Point.class, point -> "{\"xy\": [" + point.x() + ", " + point.y() + "]}");
+    assertEquals("""
+        {
+          "name": "launch",
+          "date": "2024-02-09",
+          "location": {"xy": [1, 2]}
+        }""", writer.toPrettyJSON(new Event("launch", LocalDate.of(2024, 2, 9), new Point(1, 2))));
+  }
+}
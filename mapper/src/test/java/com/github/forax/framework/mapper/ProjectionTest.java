@@ -0,0 +1,103 @@
+package com.github.forax.framework.mapper;
+
+import com.github.forax.framework.mapper.JSONReader.Projection;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.github.forax.framework.mapper.TestReaders.reader;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProjectionTest {
+  public record Address(String street, @JSONProperty("zip/code") String zipCode, @JSONProperty("a~b") int floor) { }
+
+  public record Person(String name, int age, LocalDate birthday, Address address, List<Address> homes) { }
+
+  private static final String JSON = """
+      {"name": "Bob", "age": 23, "birthday": "not a date", \
+      "address": {"street": "Main", "zip/code": "75001", "a~b": 7}, \
+      "homes": [{"street": "Oak", "zip/code": "1", "a~b": 1}, {"street": "Elm", "zip/code": "2", "a~b": 2}]}
+      """;
+
+  @Test
+  public void prunedComponentsKeepTheirDefaultValue() {
+    // the birthday is not a valid date but it is skipped without being converted
+    assertEquals(new Person("Bob", 0, null, null, null),
+        reader().parseJSON(JSON, Person.class, Projection.of("/name")));
+  }
+
+  @Test
+  public void nestedPath() {
+    assertEquals(new Person(null, 23, null, new Address("Main", null, 0), null),
+        reader().parseJSON(JSON, Person.class, Projection.of("/age", "/address/street")));
+  }
+
+  @Test
+  public void prefixSelectsAllTheValuesBelow() {
+    assertEquals(new Person(null, 0, null, new Address("Main", "75001", 7), null),
+        reader().parseJSON(JSON, Person.class, Projection.of("/address/street", "/address")));
+  }
+
+  @Test
+  public void arrayElementsShareThePathOfTheArray() {
+    assertEquals(new Person(null, 0, null, null, List.of(new Address("Oak", null, 0), new Address("Elm", null, 0))),
+        reader().parseJSON(JSON, Person.class, Projection.of("/homes/street")));
+  }
+
+  @Test
+  public void escapedSegments() {
+    assertAll(
+        () -> assertEquals(new Person(null, 0, null, new Address(null, "75001", 0), null),
+            reader().parseJSON(JSON, Person.class, Projection.of("/address/zip~1code"))),
+        () -> assertEquals(new Person(null, 0, null, new Address(null, null, 7), null),
+            reader().parseJSON(JSON, Person.class, Projection.of("/address/a~0b"))),
+        () -> assertEquals(new Person(null, 0, null, new Address(null, null, 0), null),
+            reader().parseJSON(JSON, Person.class, Projection.of("/address/zip/code")))
+    );
+  }
+
+  @Test
+  public void skippedValuesAreNotInterned() {
+    var reader = reader();
+    var stringCache = new StringCache();
+    reader.setStringCache(stringCache);
+    reader.parseJSON(JSON, Person.class, Projection.of("/name"));
+    // the 5 keys of the root object, "Bob" and "not a date", the first token of a skipped value
+    assertEquals(7, stringCache.hits() + stringCache.misses());
+  }
+
+  @Test
+  public void all() {
+    var reader = reader();
+    assertEquals(reader.parseJSON(JSON.replace("not a date", "2001-05-02"), Person.class),
+        reader.parseJSON(JSON.replace("not a date", "2001-05-02"), Person.class, Projection.ALL));
+  }
+
+  @Test
+  public void prunedValuesMustBeWellNested() {
+    assertAll(
+        () -> assertThrows(JSONParseException.class, () -> reader().parseJSON("""
+            {"address": [1, 2}, "name": "Bob"}
+            """, Person.class, Projection.of("/name"))),
+        () -> assertThrows(JSONParseException.class, () -> reader().parseJSON("""
+            {"address": {"street": [1}], "name": "Bob"}
+            """, Person.class, Projection.of("/name"))),
+        () -> assertTrue(assertThrows(JSONParseException.class, () -> reader().parseJSON("""
+            {"address": :, "name": "Bob"}
+            """, Person.class, Projection.of("/name"))).getMessage().contains("LEFT_BRACKET, LEFT_CURLY"))
+    );
+  }
+
+  @Test
+  public void invalidPointers() {
+    assertAll(
+        () -> assertThrows(IllegalArgumentException.class, () -> Projection.of("name")),
+        () -> assertThrows(IllegalArgumentException.class, () -> Projection.of()),
+        () -> assertThrows(NullPointerException.class, () -> Projection.of((String) null))
+    );
+  }
+}
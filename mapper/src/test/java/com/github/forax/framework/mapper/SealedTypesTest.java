@@ -0,0 +1,115 @@
+package com.github.forax.framework.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SealedTypesTest {
+  public sealed interface Shape permits Circle, Rectangle, Polygon { }
+  public record Circle(double radius) implements Shape { }
+  public record Rectangle(int width, int height) implements Shape { }
+  public sealed interface Polygon extends Shape permits Triangle { }
+  public record Triangle(int a, int b, int c, int d, int e) implements Polygon { }
+
+  public record Drawing(String name, List<Shape> shapes) { }
+
+  private static JSONReader reader() {
+    var reader = TestReaders.reader();
+    var shapeBuilder = JSONReader.ObjectBuilder.sealed(Shape.class, "kind", JSONReader.ObjectBuilder::record);
+    reader.addTypeMatcher(type -> type == Shape.class ? Optional.of(shapeBuilder) : Optional.empty());
+    return reader;
+  }
+
+  @Test
+  public void discriminatorFirst() {
+    assertEquals(new Circle(2.0), reader().parseJSON("""
+        {"kind": "Circle", "radius": 2.0}
+        """, Shape.class));
+  }
+
+  @Test
+  public void discriminatorNotFirst() {
+    assertEquals(new Rectangle(3, 4), reader().parseJSON("""
+        {"width": 3, "kind": "Rectangle", "height": 4}
+        """, Shape.class));
+  }
+
+  @Test
+  public void discriminatorLast() {
+    // more keys than the initial capacity of the buffer
+    assertEquals(new Triangle(1, 2, 3, 4, 5), reader().parseJSON("""
+        {"a": 1, "b": 2, "c": 3, "d": 4, "e": 5, "kind": "Triangle"}
+        """, Shape.class));
+  }
+
+  @Test
+  public void nested() {
+    assertEquals(new Drawing("sketch", List.of(new Circle(1.0), new Rectangle(2, 3))), reader().parseJSON("""
+        {"name": "sketch", "shapes": [
+          {"kind": "Circle", "radius": 1.0},
+          {"height": 3, "width": 2, "kind": "Rectangle"}
+        ]}
+        """, Drawing.class));
+  }
+
+  @Test
+  public void missingDiscriminator() {
+    var reader = reader();
+    assertAll(
+        () -> assertThrows(JSONParseException.class, () -> reader.parseJSON("""
+            {"radius": 2.0}
+            """, Shape.class)),
+        () -> assertThrows(JSONParseException.class, () -> reader.parseJSON("""
+            {"name": "sketch", "shapes": [{"radius": 2.0}]}
+            """, Drawing.class))
+    );
+  }
+
+  @Test
+  public void unknownDiscriminator() {
+    var reader = reader();
+    assertAll(
+        () -> assertThrows(JSONParseException.class, () -> reader.parseJSON("""
+            {"kind": "Square", "width": 2}
+            """, Shape.class)),
+        () -> assertThrows(JSONParseException.class, () -> reader.parseJSON("""
+            {"kind": 3}
+            """, Shape.class)),
+        () -> assertThrows(JSONParseException.class, () -> reader.parseJSON("""
+            {"kind": "Polygon"}
+            """, Shape.class))
+    );
+  }
+
+  @Test
+  public void unknownKey() {
+    assertThrows(JSONParseException.class, () -> reader().parseJSON("""
+        {"kind": "Circle", "width": 2}
+        """, Shape.class));
+  }
+
+  public sealed interface Node permits Leaf, Branch { }
+  public record Leaf(int value) implements Node { }
+  public record Branch(String value) implements Node { }
+
+  @Test
+  public void sharedKeyWithSeveralTypes() {
+    var nodeBuilder = JSONReader.ObjectBuilder.sealed(Node.class, "kind", JSONReader.ObjectBuilder::record);
+    assertThrows(IllegalStateException.class, () -> nodeBuilder.typeProvider().apply("value"));
+  }
+
+  @Test
+  public void notSealed() {
+    assertAll(
+        () -> assertThrows(IllegalArgumentException.class,
+            () -> JSONReader.ObjectBuilder.sealed(Circle.class, "kind", JSONReader.ObjectBuilder::record)),
+        () -> assertThrows(NullPointerException.class,
+            () -> JSONReader.ObjectBuilder.sealed(Shape.class, null, JSONReader.ObjectBuilder::record))
+    );
+  }
+}
@@ -0,0 +1,81 @@
+package com.github.forax.framework.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StringCacheTest {
+  @Test
+  public void internText() {
+    var cache = new StringCache(16, 8);
+    var text = "ACTIVE, ACTIVE, INACTIVE_FOR_A_LONG_TIME";
+    var first = cache.intern(text, 0, 6);
+    var second = cache.intern(text, 8, 14);
+    assertAll(
+        () -> assertEquals("ACTIVE", first),
+        () -> assertSame(first, second),
+        () -> assertEquals(1, cache.hits()),
+        () -> assertEquals(1, cache.misses()),
+        () -> assertEquals(0.5, cache.hitRatio()),
+        () -> assertNotSame(cache.intern(text, 16, 40), cache.intern(text, 16, 40)),
+        () -> assertEquals(1, cache.misses())
+    );
+  }
+
+  @Test
+  public void internBytes() {
+    var cache = new StringCache();
+    var data = "FR été FR".getBytes(UTF_8);
+    var first = cache.intern(data, 0, 2);
+    var second = cache.intern(data, data.length - 2, 2);
+    assertAll(
+        () -> assertEquals("FR", first),
+        () -> assertSame(first, second),
+        () -> assertEquals("été", cache.intern(data, 3, 5)),
+        () -> assertEquals(1, cache.hits())
+    );
+  }
+
+  @Test
+  public void capacity() {
+    assertAll(
+        () -> assertEquals(1, new StringCache(1, 8).capacity()),
+        () -> assertEquals(128, new StringCache(100, 8).capacity()),
+        () -> assertEquals(1_024, new StringCache().capacity()),
+        () -> assertThrows(IllegalArgumentException.class, () -> new StringCache(0, 8)),
+        () -> assertThrows(IllegalArgumentException.class, () -> new StringCache(16, -1))
+    );
+  }
+
+  public record Account(String status, String country) { }
+
+  @Test
+  public void parseJSONWithAStringCache() {
+    var reader = new JSONReader();
+    reader.addTypeMatcher(type -> Optional.of(Utils.erase(type)).filter(Class::isRecord).map(JSONReader.ObjectBuilder::record));
+    var cache = new StringCache();
+    reader.setStringCache(cache);
+    var account1 = reader.parseJSON("""
+        {"status": "ACTIVE", "country": "FR"}
+        """, Account.class);
+    var account2 = reader.parseJSON("""
+        {"status": "ACTIVE", "country": "FR"}
+        """, Account.class);
+    var account3 = reader.parseBinary(new JSONWriter().toBinary(account1), Account.class);
+    assertAll(
+        () -> assertEquals(new Account("ACTIVE", "FR"), account1),
+        () -> assertSame(account1.status(), account2.status()),
+        () -> assertSame(account1.country(), account2.country()),
+        () -> assertSame(account1.status(), account3.status()),
+        () -> assertEquals(List.of(8L, 4L), List.of(cache.hits(), cache.misses()))
+    );
+  }
+}
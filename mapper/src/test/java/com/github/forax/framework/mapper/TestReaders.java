@@ -0,0 +1,23 @@
+package com.github.forax.framework.mapper;
+
+import java.lang.reflect.ParameterizedType;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The reader shared by the tests, it decodes the records and the lists.
+ */
+final class TestReaders {
+  private TestReaders() {
+    throw new AssertionError();
+  }
+
+  static JSONReader reader() {
+    var reader = new JSONReader();
+    reader.addTypeMatcher(type -> Optional.of(Utils.erase(type)).filter(Class::isRecord).map(JSONReader.ObjectBuilder::record));
+    reader.addTypeMatcher(type -> Optional.of(type)
+        .filter(t -> Utils.erase(t) == List.class)
+        .map(t -> JSONReader.ObjectBuilder.list(((ParameterizedType) t).getActualTypeArguments()[0])));
+    return reader;
+  }
+}
@@ -9,16 +9,29 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ToyJSONParserTest {
   private static Object asJava(String text) {
+    return asJava(text, key -> true);
+  }
+
+  private static Object asJava(String text, Predicate<? super String> keyFilter) {
     var visitor = new JSONVisitor() {
       private Object result;
       private final ArrayDeque<Object> stack = new ArrayDeque<>();
 
+      @Override
+      public boolean acceptKey(String key) {
+        return keyFilter.test(key);
+      }
+
       @Override
       @SuppressWarnings("unchecked")
       public void value(String key, Object value) {
@@ -137,10 +150,151 @@ class ToyJSONParserTest {
     );
   }
 
+  @Test
+  public void parseIntegers() {
+    assertAll(
+        () -> assertEquals(List.of(0, 999_999_999, 2_147_483_647), asJava("[0, 999999999, 2147483647]")),
+        () -> assertEquals(List.of(2_147_483_648L, 9_223_372_036_854_775_807L), asJava("[2147483648, 9223372036854775807]")),
+        () -> assertThrows(JSONParseException.class, () -> asJava("[9223372036854775808]")),
+        () -> assertEquals(List.of(-1, -2_147_483_648, -2_147_483_649L), asJava("[-1, -2147483648, -2147483649]"))
+    );
+  }
+
+  @Test
+  public void parseDoubles() {
+    assertEquals(List.of(-0.5, 100_000.0, 0.0015, -2e-3), asJava("[-0.5, 1e5, 1.5E-3, -2e-3]"));
+  }
+
+  @Test
+  public void parseEscapedStrings() {
+    assertEquals(Map.of("a\"b", List.of("\\/\b\f\n\r\t", "\u00e9")), asJava("""
+        {"a\\"b": ["\\\\\\/\\b\\f\\n\\r\\t", "\\u00e9"]}
+        """));
+  }
+
   @Test
   public void parseArraysWithNull() {
     assertEquals(Arrays.asList(13.4, null), asJava("""
         [ 13.4, null ]
         """));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void parseObjectsWithSkippedKeys() {
+    var keys = Set.of("foo", "bar");
+    assertAll(
+        () -> assertEquals(Map.of("foo", 1), asJava("""
+            { "foo": 1, "baz": 2 }
+            """, keys::contains)),
+        () -> assertEquals(Map.of("foo", 1, "bar", List.of(Map.of("bar", 3))), asJava("""
+            {
+              "baz": { "foo": [1, { "bar": 2 }], "baz": [] },
+              "foo": 1,
+              "bar": [ { "bar": 3, "baz": { "foo": 4 } } ]
+            }
+            """, keys::contains))
+    );
+  }
+
+  @Test
+  public void parseErrorPosition() {
+    var text = """
+        {
+          "name": "Bob",
+          "age" 42
+        }
+        """;
+    var exception = assertThrows(JSONParseException.class, () -> asJava(text));
+    assertAll(
+        () -> assertEquals(3, exception.line()),
+        () -> assertEquals(9, exception.column()),
+        () -> assertEquals(text.indexOf("42"), exception.offset()),
+        () -> assertEquals("  \"age\" 42", exception.excerpt()),
+        () -> assertEquals("expect COLON but recognized INTEGER", exception.reason()),
+        () -> assertEquals("""
+            expect COLON but recognized INTEGER at line 3, column 9
+              "age" 42
+                    ^""", exception.getMessage())
+    );
+  }
+
+  @Test
+  public void parseErrorExcerptIsBounded() {
+    var text = "[" + "1, ".repeat(1_000_000) + "}";
+    var exception = assertThrows(JSONParseException.class, () -> asJava(text));
+    assertAll(
+        () -> assertEquals(text.length() - 1, exception.offset()),
+        () -> assertTrue(exception.excerpt().length() <= JSONParseException.EXCERPT_LENGTH),
+        () -> assertTrue(exception.getMessage().length() < 200)
+    );
+  }
+
+  @Test
+  public void validate() {
+    ToyJSONParser.validate("""
+        {
+          "name": "Bob", "values": [1, 2.5, true, null, {}]
+        }
+        """);
+  }
+
+  @Test
+  public void validateErrors() {
+    assertAll(
+        () -> assertEquals(8, assertThrows(JSONParseException.class, () -> ToyJSONParser.validate("{\"a\": 1 @}")).offset()),
+        () -> assertEquals(3, assertThrows(JSONParseException.class, () -> ToyJSONParser.validate("{} []")).offset()),
+        () -> assertEquals(3, assertThrows(JSONParseException.class, () -> ToyJSONParser.validate("[1,")).offset()),
+        () -> assertEquals(6, assertThrows(JSONParseException.class, () -> ToyJSONParser.validate("[1, 2 3]")).offset()),
+        () -> assertEquals(1, assertThrows(JSONParseException.class, () -> ToyJSONParser.validate("[.]")).offset()),
+        () -> assertEquals(4, assertThrows(JSONParseException.class, () -> ToyJSONParser.validate("[1, .]")).offset())
+    );
+  }
+
+  @Test
+  public void validateNumbers() {
+    assertAll(
+        () -> ToyJSONParser.validate("[0, -1, 1.5, -0.25, 1e5, 2E-3, 1.5e+10]"),
+        () -> assertThrows(JSONParseException.class, () -> ToyJSONParser.validate("[.5]")),
+        () -> assertThrows(JSONParseException.class, () -> ToyJSONParser.validate("[2.]")),
+        () -> assertThrows(JSONParseException.class, () -> ToyJSONParser.validate("[01]")),
+        () -> assertThrows(JSONParseException.class, () -> ToyJSONParser.validate("[-]")),
+        () -> assertThrows(JSONParseException.class, () -> ToyJSONParser.validate("[+1]")),
+        () -> assertThrows(JSONParseException.class, () -> ToyJSONParser.validate("[1e]"))
+    );
+  }
+
+  @Test
+  public void validateStrings() {
+    assertAll(
+        () -> ToyJSONParser.validate("""
+            ["a\\"b", "\\\\", "\\/", "\\b\\f\\n\\r\\t", "\\u00e9"]
+            """),
+        () -> assertThrows(JSONParseException.class, () -> ToyJSONParser.validate("[\"\\x\"]")),
+        () -> assertThrows(JSONParseException.class, () -> ToyJSONParser.validate("[\"\\u12\"]")),
+        () -> assertThrows(JSONParseException.class, () -> ToyJSONParser.validate("[\"a\nb\"]"))
+    );
+  }
+
+  @Test
+  public void scan() {
+    assertAll(
+        () -> assertEquals(new JSONReader.ScanResult(3, 3), ToyJSONParser.scan("""
+            [{"a": [1, 2]}, "foo", {}]
+            """)),
+        () -> assertEquals(new JSONReader.ScanResult(2, 1), ToyJSONParser.scan("""
+            {"name": "Bob", "age": 42}
+            """)),
+        () -> assertEquals(new JSONReader.ScanResult(0, 1), ToyJSONParser.scan("[]")),
+        () -> assertEquals(new JSONReader.ScanResult(1, 100), ToyJSONParser.scan("[".repeat(100) + "]".repeat(100)))
+    );
+  }
+
+  @Test
+  public void scanErrors() {
+    assertAll(
+        () -> assertEquals(1, assertThrows(JSONParseException.class, () -> ToyJSONParser.scan("{1: 2}")).offset()),
+        () -> assertEquals(4, assertThrows(JSONParseException.class, () -> ToyJSONParser.scan("[1, ]")).offset()),
+        () -> assertEquals(0, assertThrows(JSONParseException.class, () -> ToyJSONParser.scan("42")).offset())
+    );
+  }
+}